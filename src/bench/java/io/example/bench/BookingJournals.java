@@ -0,0 +1,88 @@
+package io.example.bench;
+
+import io.example.domain.BookingEvent;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.SlotId;
+import io.example.domain.Timeslot;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Generates realistic BookingSlotEntity journals for benchmarks: mostly
+// mark/unmark churn from a pool of participants, with the occasional booking
+// and cancellation. Only events the entity would actually accept are emitted,
+// so replaying a journal exercises the same paths as a real recovery.
+final class BookingJournals {
+
+    private static final SlotId SLOT_ID = SlotId.parse("2026-12-10-10");
+
+    private BookingJournals() {
+    }
+
+    static List<BookingEvent> churn(int length, int participantsPerType, long seed) {
+        Random random = new Random(seed);
+        List<BookingEvent> journal = new ArrayList<>(length);
+        Timeslot state = Timeslot.empty();
+        int bookingSeq = 0;
+
+        while (journal.size() < length) {
+            int roll = random.nextInt(100);
+            List<BookingEvent> next = new ArrayList<>(1);
+
+            if (roll < 5 && !state.bookings().isEmpty()) {
+                String bookingId = state.bookings().iterator().next().bookingId();
+                var booking = state.findBooking(bookingId);
+                next.add(new BookingEvent.BookingCanceled(
+                        SLOT_ID,
+                        idOfType(booking, ParticipantType.STUDENT),
+                        idOfType(booking, ParticipantType.AIRCRAFT),
+                        idOfType(booking, ParticipantType.INSTRUCTOR),
+                        bookingId));
+            } else if (roll < 15) {
+                String student = pick(state, ParticipantType.STUDENT);
+                String aircraft = pick(state, ParticipantType.AIRCRAFT);
+                String instructor = pick(state, ParticipantType.INSTRUCTOR);
+                if (student != null && aircraft != null && instructor != null) {
+                    String bookingId = "booking-" + bookingSeq++;
+                    next.add(new BookingEvent.SlotBooked(SLOT_ID, student, aircraft, instructor, bookingId));
+                }
+            } else {
+                ParticipantType type = ParticipantType.values()[random.nextInt(ParticipantType.values().length)];
+                String id = type.name().toLowerCase() + "-" + random.nextInt(participantsPerType);
+                if (state.isWaiting(id, type)) {
+                    next.add(new BookingEvent.ParticipantUnmarkedAvailable(SLOT_ID, id, type));
+                } else {
+                    next.add(new BookingEvent.ParticipantMarkedAvailable(SLOT_ID, id, type));
+                }
+            }
+
+            for (BookingEvent event : next) {
+                if (journal.size() == length) break;
+                journal.add(event);
+                state = state.onEvent(event);
+            }
+        }
+        return journal;
+    }
+
+    static Timeslot replay(Timeslot from, List<BookingEvent> events) {
+        Timeslot state = from;
+        for (BookingEvent event : events) {
+            state = state.onEvent(event);
+        }
+        return state;
+    }
+
+    private static String idOfType(List<Timeslot.Booking> booking, ParticipantType type) {
+        return booking.stream()
+                .filter(b -> b.participant().participantType() == type)
+                .map(b -> b.participant().id())
+                .findFirst()
+                .orElse("");
+    }
+
+    private static String pick(Timeslot state, ParticipantType type) {
+        var ids = state.availableOfType(type);
+        return ids.isEmpty() ? null : ids.iterator().next();
+    }
+}
@@ -0,0 +1,63 @@
+package io.example.bench;
+
+import akka.javasdk.JsonSupport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.example.domain.BookingEvent;
+import io.example.domain.Timeslot;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Recovery time of a BookingSlotEntity versus journal length, with and without
+// snapshots. Without snapshots recovery folds the whole journal through
+// applyEvent; with snapshots it decodes the latest compact snapshot and folds
+// only the events written after it (fewer than `snapshotEvery`).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingSlotReplayBenchmark {
+
+    // The `..99` lengths leave a tail of snapshotEvery - 1 events after the
+    // last snapshot, the worst case for recovery with snapshots
+    @Param({"100", "199", "1000", "1099", "10000", "10099", "100000", "100099"})
+    public int journalLength;
+
+    // 0 disables snapshots, matching a journal recovered from scratch
+    @Param({"0", "100"})
+    public int snapshotEvery;
+
+    private ObjectMapper mapper;
+    private List<BookingEvent> tail;
+    private byte[] snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        mapper = JsonSupport.getObjectMapper();
+        List<BookingEvent> journal = BookingJournals.churn(journalLength, 50, 42L);
+
+        int snapshotAt = snapshotEvery == 0 ? 0 : journalLength - journalLength % snapshotEvery;
+        Timeslot atSnapshot = BookingJournals.replay(Timeslot.empty(), journal.subList(0, snapshotAt));
+        snapshot = mapper.writeValueAsBytes(atSnapshot);
+        tail = journal.subList(snapshotAt, journal.size());
+    }
+
+    @Benchmark
+    public Timeslot recover() throws Exception {
+        Timeslot from = snapshotEvery == 0 ? Timeslot.empty() : mapper.readValue(snapshot, Timeslot.class);
+        return BookingJournals.replay(from, tail);
+    }
+}
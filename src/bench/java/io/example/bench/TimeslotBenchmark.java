@@ -0,0 +1,119 @@
+package io.example.bench;
+
+import io.example.domain.BookingEvent;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.SlotId;
+import io.example.domain.Timeslot;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The Timeslot operations on the BookingSlotEntity hot paths, over slots
+// holding `size` available participants and `size` booking entries. Every
+// operation returns a new Timeslot (or a lookup result) without touching the
+// shared fixture, so each invocation starts from the same state. Run with the
+// GC profiler (the profile's default) to see allocation per operation.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeslotBenchmark {
+
+    private static final SlotId SLOT_ID = SlotId.parse("2026-12-10-10");
+
+    @Param({"3", "100", "1000", "10000"})
+    public int size;
+
+    private Timeslot slot;
+    private BookingEvent.ParticipantMarkedAvailable newParticipant;
+    private BookingEvent.ParticipantUnmarkedAvailable existingParticipant;
+    private BookingEvent.SlotBooked bookParticipants;
+    private String existingBookingId;
+    private String[] bookableIds;
+    private List<BookingEvent> journal;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int perType = Math.max(1, size / 3);
+        Set<Participant> available = new HashSet<>();
+        Set<Timeslot.Booking> bookings = new HashSet<>();
+        for (int i = 0; i < perType; i++) {
+            for (ParticipantType type : ParticipantType.values()) {
+                available.add(new Participant(id(type, i), type));
+                bookings.add(new Timeslot.Booking(
+                        new Participant("booked-" + id(type, i), type), "booking-" + i));
+            }
+        }
+        slot = new Timeslot(bookings, available);
+
+        int middle = perType / 2;
+        newParticipant = new BookingEvent.ParticipantMarkedAvailable(SLOT_ID, "newcomer", ParticipantType.STUDENT);
+        existingParticipant = new BookingEvent.ParticipantUnmarkedAvailable(
+                SLOT_ID, id(ParticipantType.AIRCRAFT, middle), ParticipantType.AIRCRAFT);
+        existingBookingId = "booking-" + middle;
+        bookableIds = new String[]{
+                id(ParticipantType.STUDENT, middle),
+                id(ParticipantType.AIRCRAFT, middle),
+                id(ParticipantType.INSTRUCTOR, middle)};
+        bookParticipants = new BookingEvent.SlotBooked(
+                SLOT_ID, bookableIds[0], bookableIds[1], bookableIds[2], "booking-new");
+        journal = BookingJournals.churn(1000, perType, 42L);
+    }
+
+    @Benchmark
+    public Timeslot reserve() {
+        return slot.reserve(newParticipant);
+    }
+
+    @Benchmark
+    public Timeslot unreserve() {
+        return slot.unreserve(existingParticipant);
+    }
+
+    @Benchmark
+    public Timeslot book() {
+        return slot.book(bookParticipants);
+    }
+
+    @Benchmark
+    public Timeslot cancelBooking() {
+        return slot.cancelBooking(existingBookingId);
+    }
+
+    @Benchmark
+    public List<Timeslot.Booking> findBooking() {
+        return slot.findBooking(existingBookingId);
+    }
+
+    @Benchmark
+    public boolean isBookable() {
+        return slot.isBookable(bookableIds[0], bookableIds[1], bookableIds[2]);
+    }
+
+    // BookingSlotEntity.applyEvent over a 1000 event churn journal drawn from
+    // `size / 3` participants of each type (at least one)
+    @Benchmark
+    public Timeslot applyEventReplay() {
+        return BookingJournals.replay(Timeslot.empty(), journal);
+    }
+
+    private static String id(ParticipantType type, int i) {
+        return type.name().toLowerCase() + "-" + i;
+    }
+}
@@ -1,22 +1,67 @@
 package io.example.api;
 
+import akka.Done;
+import akka.http.javadsl.model.HttpHeader;
 import akka.http.javadsl.model.HttpResponse;
 import akka.javasdk.annotations.Acl;
 import akka.javasdk.annotations.http.Delete;
 import akka.javasdk.annotations.http.Get;
 import akka.javasdk.annotations.http.HttpEndpoint;
 import akka.javasdk.annotations.http.Post;
+import akka.javasdk.annotations.http.Put;
 import akka.javasdk.client.ComponentClient;
 import akka.javasdk.http.AbstractHttpEndpoint;
 import akka.javasdk.http.HttpException;
 import akka.javasdk.http.HttpResponses;
+import akka.javasdk.timer.TimerScheduler;
+import akka.stream.Materializer;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import com.typesafe.config.Config;
+import io.example.application.AvailabilityRuleAction;
+import io.example.application.AvailabilityRuleEntity;
+import io.example.application.BatchScheduler;
 import io.example.application.BookingSlotEntity;
-import io.example.application.FlightConditionsAgent;
+import io.example.application.FlightConditionsEvaluator;
+import io.example.application.FlightMetrics;
+import io.example.application.ParticipantCalendarEntity;
+import io.example.application.ParticipantSlotsProjection;
 import io.example.application.ParticipantSlotsView;
-import io.example.application.ParticipantSlotsView.SlotList;
+import io.example.application.ParticipantSlotsView.SlotPage;
+import io.example.application.ParticipantUtilizationView;
+import io.example.application.ParticipantUtilizationView.UtilizationRow;
+import io.example.application.SlotAvailabilityView;
+import io.example.application.SlotParticipantsView;
+import io.example.domain.AvailabilityRule;
+import io.example.domain.BatchPlanner;
 import io.example.domain.Participant;
 import io.example.domain.Participant.ParticipantType;
+import io.example.domain.ParticipantCalendar;
+import io.example.domain.SlotId;
 import io.example.domain.Timeslot;
+import io.example.domain.Utilization;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -26,132 +71,714 @@ public class FlightEndpoint extends AbstractHttpEndpoint {
     private final Logger log = LoggerFactory.getLogger(FlightEndpoint.class);
 
     private final ComponentClient componentClient;
+    private final FlightConditionsEvaluator conditionsEvaluator;
+    private final Materializer materializer;
+    private final int bulkParallelism;
+    private final int bulkMaxItems;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final ParticipantSlotsProjection projection;
+    private final TimerScheduler timerScheduler;
+    private final int ruleMaxSlots;
+    private final BatchScheduler batchScheduler;
+    private final int batchMaxLessons;
+    private final long batchMaxHours;
+    private final int utilizationMaxParticipants;
+    private final int utilizationMaxMonths;
+    private final Consistency defaultConsistency;
 
-    public FlightEndpoint(ComponentClient componentClient) {
+    public FlightEndpoint(
+            ComponentClient componentClient,
+            FlightConditionsEvaluator conditionsEvaluator,
+            Materializer materializer,
+            TimerScheduler timerScheduler,
+            ParticipantSlotsProjection projection,
+            Config config) {
         this.componentClient = componentClient;
+        this.timerScheduler = timerScheduler;
+        this.conditionsEvaluator = conditionsEvaluator;
+        this.materializer = materializer;
+        this.bulkParallelism = config.getInt("flight.bulk-availability.parallelism");
+        this.bulkMaxItems = config.getInt("flight.bulk-availability.max-items");
+        this.defaultPageSize = config.getInt("flight.slot-queries.default-page-size");
+        this.maxPageSize = config.getInt("flight.slot-queries.max-page-size");
+        this.projection = projection;
+        this.ruleMaxSlots = config.getInt("flight.availability-rules.max-slots");
+        this.batchScheduler = new BatchScheduler(
+                componentClient, conditionsEvaluator, materializer, config.getInt("flight.batch-schedule.parallelism"));
+        this.batchMaxLessons = config.getInt("flight.batch-schedule.max-lessons");
+        this.batchMaxHours = config.getDuration("flight.batch-schedule.max-horizon").toHours();
+        this.utilizationMaxParticipants = config.getInt("flight.utilization.max-participants");
+        this.utilizationMaxMonths = config.getInt("flight.utilization.max-months");
+        this.defaultConsistency = Consistency.valueOf(
+                config.getString("flight.reads.consistency").trim().toUpperCase(Locale.ROOT));
     }
 
     // Creates a new booking. All three identified participants will
     // be considered booked for the given timeslot, if they are all
     // "available" at the time of booking.
+    //
+    // Whether the participants are available is read from the slot first: it
+    // is a cheap entity read, while the flight conditions check may be a model
+    // call, so a booking that can't succeed is rejected without paying for one.
+    // The read is served by the local replica; only when that says the slot is
+    // not bookable is it confirmed with the primary, so a lagging replica never
+    // rejects a booking. The booking itself, like every write, is forwarded to
+    // the slot's primary region by the runtime.
     @Post("/bookings/{slotId}")
-    public HttpResponse createBooking(String slotId, BookingRequest request) {
-        log.info("Creating booking for slot {}: {}", slotId, request);
+    public CompletionStage<HttpResponse> createBooking(String slotId, BookingRequest request) {
+        return timed("createBooking", () -> {
+            log.info("Creating booking for slot {}: {}", slotId, request);
 
-        if (request == null) throw HttpException.badRequest("request body is required");
-        if (request.bookingId() == null || request.bookingId().trim().isEmpty()) throw HttpException.badRequest("bookingId is required");
-        if (request.studentId() == null || request.studentId().trim().isEmpty()) throw HttpException.badRequest("studentId is required");
-        if (request.aircraftId() == null || request.aircraftId().trim().isEmpty()) throw HttpException.badRequest("aircraftId is required");
-        if (request.instructorId() == null || request.instructorId().trim().isEmpty()) throw HttpException.badRequest("instructorId is required");
+            if (request == null) throw HttpException.badRequest("request body is required");
+            if (request.bookingId() == null || request.bookingId().trim().isEmpty()) throw HttpException.badRequest("bookingId is required");
+            if (request.studentId() == null || request.studentId().trim().isEmpty()) throw HttpException.badRequest("studentId is required");
+            if (request.aircraftId() == null || request.aircraftId().trim().isEmpty()) throw HttpException.badRequest("aircraftId is required");
+            if (request.instructorId() == null || request.instructorId().trim().isEmpty()) throw HttpException.badRequest("instructorId is required");
 
-        log.info("Consulting AI Agent for flight conditions in slot {}", slotId);
+            if (!slotIdOf(slotId).isAfter(SlotId.now())) {
+                throw HttpException.badRequest("Cannot book a slot in the past or present. SlotId must be in the future.");
+            }
 
-        String now = java.time.LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd-HH"));
-        if (slotId.compareTo(now) <= 0) {
-            throw HttpException.badRequest("Cannot book a slot in the past or present. SlotId must be in the future.");
-        }
-
-        FlightConditionsAgent.ConditionsReport report = componentClient
-                .forAgent()
-                .inSession(slotId)
-                .method(FlightConditionsAgent::query)
-                .invoke(slotId);
+            return readSlot(slotId, Consistency.LOCAL)
+                    .thenCompose(slot -> isBooked(slot, request) || isBookable(slot, request)
+                            ? CompletableFuture.completedFuture(slot)
+                            // the local replica may lag; only reject on what the primary says
+                            : readSlot(slotId, Consistency.PRIMARY))
+                    .thenCompose(slot -> {
+                        // a retried booking that already succeeded is accepted again,
+                        // as the entity would, without checking the conditions
+                        if (isBooked(slot, request)) {
+                            log.info("Booking {} already exists in slot {}", request.bookingId(), slotId);
+                            return CompletableFuture.completedFuture(HttpResponses.created());
+                        }
+                        if (!isBookable(slot, request)) {
+                            log.warn("Booking {} rejected, slot {} is not bookable", request.bookingId(), slotId);
+                            throw HttpException.badRequest("slot is not bookable");
+                        }
+                        log.info("Checking flight conditions for slot {}", slotId);
+                        return checkConditions(slotId)
+                                .thenCompose(__ -> {
+                                    log.info("Flight conditions approved for slot {}. Proceeding with booking.", slotId);
+                                    return componentClient
+                                            .forEventSourcedEntity(slotId)
+                                            .method(BookingSlotEntity::bookSlot)
+                                            .invokeAsync(new BookingSlotEntity.Command.BookReservation(
+                                                    request.studentId(),
+                                                    request.aircraftId(),
+                                                    request.instructorId(),
+                                                    request.bookingId()));
+                                })
+                                .thenApply(__ -> HttpResponses.created());
+                    });
+        });
+    }
 
-        if (report == null || report.meetsRequirements() == null || !report.meetsRequirements()) {
-            log.warn("Booking rejected due to flight conditions in slot {}: {}", slotId, report);
-            throw HttpException.badRequest("Flight conditions do not meet requirements for this timeslot.");
-        }
+    private static boolean isBooked(Timeslot slot, BookingRequest request) {
+        return !slot.findBooking(request.bookingId()).isEmpty();
+    }
 
-        log.info("Flight conditions approved for slot {}. Proceeding with booking.", slotId);
-        componentClient
-                .forEventSourcedEntity(slotId)
-                .method(BookingSlotEntity::bookSlot)
-                .invoke(new BookingSlotEntity.Command.BookReservation(
-                        request.studentId(),
-                        request.aircraftId(),
-                        request.instructorId(),
-                        request.bookingId()));
+    private static boolean isBookable(Timeslot slot, BookingRequest request) {
+        return slot.isBookable(request.studentId(), request.aircraftId(), request.instructorId());
+    }
 
-        return HttpResponses.created();
+    // Completes once the flight conditions for the slot are approved, and
+    // fails with a 400 otherwise
+    private CompletionStage<Done> checkConditions(String slotId) {
+        long start = System.nanoTime();
+        return conditionsEvaluator.evaluate(slotId)
+                .whenComplete((report, ex) -> FlightMetrics.recordConditionsCheck(
+                        conditionsEvaluator.mode().name().toLowerCase(Locale.ROOT), start))
+                .thenApply(report -> {
+                    if (report == null || report.meetsRequirements() == null || !report.meetsRequirements()) {
+                        log.warn("Booking rejected due to flight conditions in slot {}: {}", slotId, report);
+                        throw HttpException.badRequest("Flight conditions do not meet requirements for this timeslot.");
+                    }
+                    return Done.done();
+                });
     }
 
     // Cancels an existing booking. Note that both the slot
     // ID and the booking ID are required.
     @Delete("/bookings/{slotId}/{bookingId}")
-    public HttpResponse cancelBooking(String slotId, String bookingId) {
-        log.info("Canceling bookingId {} by slotId {}", bookingId, slotId);
-
-        componentClient
-                .forEventSourcedEntity(slotId)
-                .method(BookingSlotEntity::cancelBooking)
-                .invoke(bookingId);
+    public CompletionStage<HttpResponse> cancelBooking(String slotId, String bookingId) {
+        return timed("cancelBooking", () -> {
+            log.info("Canceling bookingId {} by slotId {}", bookingId, slotId);
+            slotIdOf(slotId);
 
-        return HttpResponses.ok();
+            return componentClient
+                    .forEventSourcedEntity(slotId)
+                    .method(BookingSlotEntity::cancelBooking)
+                    .invokeAsync(bookingId)
+                    .thenApply(__ -> HttpResponses.ok());
+        });
     }
 
-    // Retrieves all slots in which a given participant has the supplied status.
-    // Used to retrieve bookings and slots in which the participant is available
+    // Retrieves the slots in which a given participant has the supplied status,
+    // ordered by slot ID. Used to retrieve bookings and slots in which the
+    // participant is available. Optional query parameters: `from` and `to`
+    // (inclusive slot ID range), `pageSize`, and the `pageToken` returned with
+    // the previous page.
+    //
+    // Views are maintained separately in every region, so this is always a
+    // local read that may lag writes made in another region. `consistency`
+    // is accepted for symmetry with getSlot, but only as `local`.
     @Get("/slots/{participantId}/{status}")
-    public SlotList slotsByStatus(String participantId, String status) {
+    public CompletionStage<SlotPage> slotsByStatus(String participantId, String status) {
+        return timed("slotsByStatus", () -> {
+            String normalizedStatus = status == null ? "" : status.trim().toLowerCase();
+            var params = requestContext().queryParams();
+            if (params.getString("consistency").isPresent() && consistencyParam() != Consistency.LOCAL) {
+                throw HttpException.badRequest("slot queries are served from this region's views, consistency must be local");
+            }
+            int pageSize = params.getInteger("pageSize").orElse(defaultPageSize);
+            if (pageSize <= 0 || pageSize > maxPageSize) {
+                throw HttpException.badRequest("pageSize must be between 1 and " + maxPageSize);
+            }
+
+            log.info("Getting availability for participantId {} by status {}", participantId, normalizedStatus);
+            var input = new ParticipantSlotsView.SlotPageInput(
+                    participantId,
+                    normalizedStatus,
+                    slotParam("from", SlotId.MIN).toString(),
+                    slotParam("to", SlotId.MAX).toString(),
+                    params.getString("pageToken").orElse(""),
+                    pageSize);
+
+            return switch (projection) {
+                case ENTITY -> componentClient
+                        .forView()
+                        .method(ParticipantSlotsView::getSlotPage)
+                        .invokeAsync(input);
+                case DIRECT, CALENDAR -> componentClient
+                        .forView()
+                        .method(SlotParticipantsView::getSlotPage)
+                        .invokeAsync(SlotParticipantsView.pageInput(input))
+                        .thenApply(page -> new SlotPage(
+                                page.slots().stream()
+                                        .flatMap(row -> row.rowsFor(participantId, normalizedStatus).stream())
+                                        .toList(),
+                                page.nextPageToken(),
+                                page.hasMore()));
+            };
+        });
+    }
+
+    // Streams the same rows as slotsByStatus, without paging, as server-sent
+    // events emitted while the view is read
+    @Get("/slots/{participantId}/{status}/stream")
+    public HttpResponse streamSlotsByStatus(String participantId, String status) {
         String normalizedStatus = status == null ? "" : status.trim().toLowerCase();
+        var params = requestContext().queryParams();
+
+        log.info("Streaming slots for participantId {} by status {}", participantId, normalizedStatus);
+        var input = new ParticipantSlotsView.SlotRangeInput(
+                participantId,
+                normalizedStatus,
+                slotParam("from", SlotId.MIN).toString(),
+                slotParam("to", SlotId.MAX).toString());
 
-        log.info("Getting availability for participantId {} by status {}", participantId, normalizedStatus);
-        return componentClient
-                .forView()
-                .method(ParticipantSlotsView::getSlotsByParticipantAndStatus)
-                .invoke(new ParticipantSlotsView.ParticipantStatusInput(participantId, normalizedStatus));
+        return switch (projection) {
+            case ENTITY -> HttpResponses.serverSentEvents(componentClient
+                    .forView()
+                    .stream(ParticipantSlotsView::streamSlots)
+                    .source(input));
+            case DIRECT, CALENDAR -> HttpResponses.serverSentEvents(componentClient
+                    .forView()
+                    .stream(SlotParticipantsView::streamSlots)
+                    .source(SlotParticipantsView.rangeInput(input))
+                    .mapConcat(row -> row.rowsFor(participantId, normalizedStatus)));
+        };
+    }
+
+    // Finds slots, ordered by slot ID, in which all three roles are available
+    // at once. Optional query parameters: `studentId`, `instructorId` and
+    // `aircraftId` (leave one out to match anyone of that role), `from` and `to`
+    // (inclusive slot ID range), and `limit`.
+    @Get("/bookable-slots")
+    public CompletionStage<SlotAvailabilityView.BookableSlots> bookableSlots() {
+        return timed("bookableSlots", () -> {
+            var params = requestContext().queryParams();
+            int limit = params.getInteger("limit").orElse(defaultPageSize);
+            if (limit <= 0 || limit > maxPageSize) {
+                throw HttpException.badRequest("limit must be between 1 and " + maxPageSize);
+            }
+
+            var input = new SlotAvailabilityView.BookableSlotsInput(
+                    participantParam("studentId"),
+                    participantParam("instructorId"),
+                    participantParam("aircraftId"),
+                    slotParam("from", SlotId.MIN).epochHour(),
+                    slotParam("to", SlotId.MAX).epochHour(),
+                    limit);
+            log.info("Finding bookable slots for {}", input);
+            return componentClient
+                    .forView()
+                    .method(SlotAvailabilityView::findBookableSlots)
+                    .invokeAsync(input);
+        });
+    }
+
+    // Reads an optional participant ID query parameter; leaving it out matches
+    // anyone of the role. The view's ANY marker can't be passed explicitly.
+    private String participantParam(String name) {
+        return requestContext().queryParams().getString(name)
+                .map(participantId -> {
+                    if (participantId.equals(SlotAvailabilityView.ANY)) {
+                        throw HttpException.badRequest(
+                                name + " " + SlotAvailabilityView.ANY + " is reserved, leave it out to match anyone");
+                    }
+                    return participantId;
+                })
+                .orElse(SlotAvailabilityView.ANY);
     }
 
     // Returns the internal availability state for a given slot
+    //
+    // Optional query parameter `consistency`: `local` (the default, see
+    // `flight.reads.consistency`) answers from this region's replica of the
+    // slot, which may lag writes made in another region; `primary` reads from
+    // the slot's primary region and always sees the latest state.
     @Get("/availability/{slotId}")
-    public Timeslot getSlot(String slotId) {
-        log.info("Getting availability for slot {}", slotId);
-        return componentClient
-                .forEventSourcedEntity(slotId)
-                .method(BookingSlotEntity::getSlot)
-                .invoke();
+    public CompletionStage<SlotAvailability> getSlot(String slotId) {
+        // the route is named from the raw parameter, so that a rejected one is
+        // still recorded
+        boolean primary = requestContext().queryParams().getString("consistency")
+                .map(value -> value.trim().equalsIgnoreCase("primary"))
+                .orElse(defaultConsistency == Consistency.PRIMARY);
+        return timed(primary ? "getSlotFromPrimary" : "getSlot", () -> {
+            Consistency consistency = consistencyParam();
+            log.info("Getting availability for slot {} ({})", slotId, consistency);
+            slotIdOf(slotId);
+            return readSlot(slotId, consistency).thenApply(SlotAvailability::of);
+        });
     }
 
-    // Indicates that the supplied participant is available for booking
-    // within the indicated time slot
-    @Post("/availability/{slotId}")
-    public HttpResponse markAvailable(String slotId, AvailabilityRequest request) {
-        ParticipantType participantType;
+    private CompletionStage<Timeslot> readSlot(String slotId, Consistency consistency) {
+        var slot = componentClient.forEventSourcedEntity(slotId);
+        return consistency == Consistency.PRIMARY
+                ? slot.method(BookingSlotEntity::getSlotFromPrimary).invokeAsync()
+                : slot.method(BookingSlotEntity::getSlot).invokeAsync();
+    }
 
+    // Read consistency: `local` reads are served in this region and may be
+    // stale, `primary` reads go to the primary region of the data
+    enum Consistency {
+        LOCAL, PRIMARY
+    }
+
+    private Consistency consistencyParam() {
+        return requestContext().queryParams().getString("consistency")
+                .map(value -> switch (value.trim().toLowerCase(Locale.ROOT)) {
+                    case "local" -> Consistency.LOCAL;
+                    case "primary" -> Consistency.PRIMARY;
+                    default -> throw HttpException.badRequest("consistency must be local or primary");
+                })
+                .orElse(defaultConsistency);
+    }
+
+    // Streams the slot's participants as server-sent `slot` events: the
+    // current state first, then a new event whenever the slot changes. Each
+    // event's ID is its offset; a client reconnecting with `Last-Event-ID` (or
+    // an `offset` query parameter) is sent nothing older, though the last event
+    // it saw may be sent again.
+    @Get("/availability/{slotId}/changes")
+    public HttpResponse streamSlotChanges(String slotId) {
+        slotIdOf(slotId);
+        long offset = resumeOffset();
+        log.info("Streaming changes of slot {} from offset {}", slotId, offset);
+        return ServerSentEvents.of(
+                "slot",
+                componentClient
+                        .forView()
+                        .stream(SlotParticipantsView::streamSlotChanges)
+                        .source(slotId)
+                        .filter(row -> row.offset() >= offset)
+                        .map(SlotChange::of),
+                change -> Long.toString(change.offset()));
+    }
+
+    // Streams the participant's status in every slot from `from` (default: the
+    // current hour) on as server-sent `participant-slot` events, the current
+    // ones first and then one whenever a slot they are in changes. A status of
+    // `unavailable` means they have left the slot.
+    //
+    // Offsets only order the changes of one slot, and the slots are updated in
+    // no common order, so there is no single offset to resume from: a client
+    // that reconnects is sent the current status in every slot again, then the
+    // changes. Event IDs are `{slotId}/{offset}` and `Last-Event-ID` is ignored.
+    @Get("/participants/{participantId}/changes")
+    public HttpResponse streamParticipantChanges(String participantId) {
+        SlotId from = slotParam("from", SlotId.now());
+        log.info("Streaming slot changes of {} from {}", participantId, from);
+        return ServerSentEvents.of(
+                "participant-slot",
+                componentClient
+                        .forView()
+                        .stream(SlotParticipantsView::streamParticipantChanges)
+                        .source(new SlotParticipantsView.ParticipantChangesInput(participantId, from.epochHour()))
+                        .map(row -> ParticipantSlotChange.of(participantId, row)),
+                change -> change.slotId() + "/" + change.offset());
+    }
+
+    // The offset a change stream resumes from: the `Last-Event-ID` header sent
+    // by a reconnecting event source, else the `offset` query parameter
+    private long resumeOffset() {
+        Optional<String> offset = requestContext().requestHeader("Last-Event-ID")
+                .map(HttpHeader::value)
+                .or(() -> requestContext().queryParams().getString("offset"));
         try {
-            participantType = ParticipantType.valueOf(request.participantType().trim().toUpperCase());
-        } catch (IllegalArgumentException ex) {
-            log.warn("Bad participant type {}", request.participantType());
-            throw HttpException.badRequest("invalid participant type");
+            return offset.map(String::trim).map(Long::parseLong).orElse(0L);
+        } catch (NumberFormatException ex) {
+            throw HttpException.badRequest("offset must be a number");
         }
+    }
 
-        log.info("Marking timeslot available for entity {}. It's for {} who is {}", slotId, request.participantId(), participantType);
-        componentClient
-                .forEventSourcedEntity(slotId)
-                .method(BookingSlotEntity::markSlotAvailable)
-                .invoke(new BookingSlotEntity.Command.MarkSlotAvailable(
-                        new Participant(request.participantId(), participantType)));
+    // Returns a participant's available, booked and canceled slots for one
+    // month (`yyyy-MM`), read from the participant's calendar entity
+    @Get("/calendar/{participantId}/{month}")
+    public CompletionStage<Calendar> getCalendar(String participantId, String month) {
+        return timed("getCalendar", () -> {
+            requireCalendars();
+            String calendarMonth = monthOf("month", month);
+            log.info("Getting calendar of {} for {}", participantId, calendarMonth);
+            return componentClient
+                    .forEventSourcedEntity(ParticipantCalendarEntity.calendarId(participantId, calendarMonth))
+                    .method(ParticipantCalendarEntity::getCalendar)
+                    .invokeAsync()
+                    .thenApply(Calendar::of);
+        });
+    }
+
+    // Returns the hour counts of many participants (e.g. a fleet of aircraft)
+    // per day and per week, for the months `from` to `to` (`yyyy-MM`,
+    // inclusive), counted from the slots of those months read from the
+    // utilization view in a single query. Every requested participant is
+    // listed, with zero counts if nothing is known.
+    @Post("/utilization")
+    public CompletionStage<FleetUtilization> getUtilization(UtilizationRequest request) {
+        return timed("getUtilization", () -> {
+            if (request == null || request.participantIds() == null || request.participantIds().isEmpty()) {
+                throw HttpException.badRequest("participantIds are required");
+            }
+            if (request.participantIds().size() > utilizationMaxParticipants) {
+                throw HttpException.badRequest(
+                        "at most " + utilizationMaxParticipants + " participants are allowed per request");
+            }
+            if (request.participantIds().stream().anyMatch(FlightEndpoint::isBlank)) {
+                throw HttpException.badRequest("participantIds must not be blank");
+            }
+            String from = monthOf("from", request.from());
+            String to = monthOf("to", request.to());
+            if (to.compareTo(from) < 0) throw HttpException.badRequest("to must not be before from");
+            if (YearMonth.parse(from).plusMonths(utilizationMaxMonths).compareTo(YearMonth.parse(to)) <= 0) {
+                throw HttpException.badRequest("from..to may cover at most " + utilizationMaxMonths + " months");
+            }
 
-        return HttpResponses.ok();
+            List<String> participantIds = request.participantIds().stream().distinct().toList();
+            log.info("Getting utilization of {} participants from {} to {}", participantIds.size(), from, to);
+            return componentClient
+                    .forView()
+                    .stream(ParticipantUtilizationView::streamSlots)
+                    .source(new ParticipantUtilizationView.MonthRange(from, to))
+                    .runWith(Sink.seq(), materializer)
+                    .thenApply(slots -> FleetUtilization.of(
+                            participantIds, from, to, ParticipantUtilizationView.monthsOf(participantIds, slots)));
+        });
+    }
+
+    // Calendars are only written in the `calendar` projection mode
+    private void requireCalendars() {
+        if (projection != ParticipantSlotsProjection.CALENDAR) {
+            throw HttpException.badRequest(
+                    "participant calendars are not enabled on this service"
+                            + " (requires flight.participant-slots.projection = calendar)");
+        }
+    }
+
+    private static String monthOf(String name, String month) {
+        if (month == null || !month.matches("\\d{4}-(0[1-9]|1[0-2])")) {
+            throw HttpException.badRequest(name + " must be a month of the form yyyy-MM");
+        }
+        return month;
+    }
+
+    // Indicates that the supplied participant is available for booking
+    // within the indicated time slot
+    @Post("/availability/{slotId}")
+    public CompletionStage<HttpResponse> markAvailable(String slotId, AvailabilityRequest request) {
+        return timed("markAvailable", () -> {
+            slotIdOf(slotId);
+            ParticipantType participantType;
+
+            try {
+                participantType = ParticipantType.valueOf(request.participantType().trim().toUpperCase());
+            } catch (IllegalArgumentException ex) {
+                log.warn("Bad participant type {}", request.participantType());
+                throw HttpException.badRequest("invalid participant type");
+            }
+            if (SlotAvailabilityView.ANY.equals(request.participantId())) {
+                throw HttpException.badRequest("participantId " + SlotAvailabilityView.ANY + " is reserved");
+            }
+
+            log.info("Marking timeslot available for entity {}. It's for {} who is {}", slotId, request.participantId(), participantType);
+            return componentClient
+                    .forEventSourcedEntity(slotId)
+                    .method(BookingSlotEntity::markSlotAvailable)
+                    .invokeAsync(new BookingSlotEntity.Command.MarkSlotAvailable(
+                            new Participant(request.participantId(), participantType)))
+                    .thenApply(__ -> HttpResponses.ok());
+        });
     }
 
     // Unmarks a slot as available for the given participant.
     @Delete("/availability/{slotId}")
-    public HttpResponse unmarkAvailable(String slotId, AvailabilityRequest request) {
+    public CompletionStage<HttpResponse> unmarkAvailable(String slotId, AvailabilityRequest request) {
+        return timed("unmarkAvailable", () -> {
+            slotIdOf(slotId);
+            ParticipantType participantType;
+            try {
+                participantType = ParticipantType.valueOf(request.participantType().trim().toUpperCase());
+            } catch (IllegalArgumentException ex) {
+                log.warn("Bad participant type {}", request.participantType());
+                throw HttpException.badRequest("invalid participant type");
+            }
+            return componentClient
+                    .forEventSourcedEntity(slotId)
+                    .method(BookingSlotEntity::unmarkSlotAvailable)
+                    .invokeAsync(new BookingSlotEntity.Command.UnmarkSlotAvailable(
+                            new Participant(request.participantId(), participantType)))
+                    .thenApply(__ -> HttpResponses.ok());
+        });
+    }
+
+    // Marks and/or unmarks availability for many (slot, participant) pairs in
+    // one call. Slots are dispatched to their booking slot entities with
+    // bounded parallelism, while changes to the same slot are applied in request
+    // order. Each item gets its own result, so a bad item doesn't fail the rest
+    // of the batch.
+    @Post("/availability")
+    public CompletionStage<BulkAvailabilityResponse> bulkAvailability(BulkAvailabilityRequest request) {
+        return timed("bulkAvailability", () -> {
+            if (request == null || request.items() == null || request.items().isEmpty()) {
+                throw HttpException.badRequest("items are required");
+            }
+            if (request.items().size() > bulkMaxItems) {
+                throw HttpException.badRequest("at most " + bulkMaxItems + " items are allowed per request");
+            }
+
+            List<BulkAvailabilityItem> items = request.items();
+            Map<String, List<Integer>> itemsBySlot = new LinkedHashMap<>();
+            for (int i = 0; i < items.size(); i++) {
+                BulkAvailabilityItem item = items.get(i);
+                String slotId = item == null || item.slotId() == null ? "" : item.slotId();
+                itemsBySlot.computeIfAbsent(slotId, __ -> new ArrayList<>()).add(i);
+            }
+
+            log.info("Applying {} bulk availability changes across {} slots", items.size(), itemsBySlot.size());
+            BulkAvailabilityResult[] results = new BulkAvailabilityResult[items.size()];
+            return Source.from(itemsBySlot.values())
+                    .mapAsyncUnordered(bulkParallelism, indexes -> applyInOrder(items, indexes, results))
+                    .runWith(Sink.ignore(), materializer)
+                    .thenApply(__ -> BulkAvailabilityResponse.of(Arrays.asList(results)));
+        });
+    }
+
+    // Applies the given items of a single slot one after the other
+    private CompletionStage<Done> applyInOrder(
+            List<BulkAvailabilityItem> items, List<Integer> indexes, BulkAvailabilityResult[] results) {
+        CompletionStage<Done> chain = CompletableFuture.completedFuture(Done.done());
+        for (int index : indexes) {
+            chain = chain.thenCompose(__ -> applyAvailability(items.get(index)).thenApply(result -> {
+                results[index] = result;
+                return Done.done();
+            }));
+        }
+        return chain;
+    }
+
+    private CompletionStage<BulkAvailabilityResult> applyAvailability(BulkAvailabilityItem item) {
+        if (item == null || item.slotId() == null || item.slotId().isBlank()) {
+            return CompletableFuture.completedFuture(BulkAvailabilityResult.failed(item, "slotId is required"));
+        }
+        if (SlotId.tryParse(item.slotId()).isEmpty()) {
+            return CompletableFuture.completedFuture(BulkAvailabilityResult.failed(item, "invalid slotId"));
+        }
+        if (item.actionName() == null) {
+            return CompletableFuture.completedFuture(
+                    BulkAvailabilityResult.failed(item, "invalid action, expected mark or unmark"));
+        }
+
         ParticipantType participantType;
         try {
-            participantType = ParticipantType.valueOf(request.participantType().trim().toUpperCase());
-        } catch (IllegalArgumentException ex) {
-            log.warn("Bad participant type {}", request.participantType());
-            throw HttpException.badRequest("invalid participant type");
+            participantType = ParticipantType.valueOf(item.participantType().trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException ex) {
+            return CompletableFuture.completedFuture(BulkAvailabilityResult.failed(item, "invalid participant type"));
+        }
+
+        Participant participant = new Participant(item.participantId(), participantType);
+        var slotClient = componentClient.forEventSourcedEntity(item.slotId());
+        CompletionStage<Done> call;
+        if (item.isUnmark()) {
+            call = slotClient
+                    .method(BookingSlotEntity::unmarkSlotAvailable)
+                    .invokeAsync(new BookingSlotEntity.Command.UnmarkSlotAvailable(participant));
+        } else {
+            call = slotClient
+                    .method(BookingSlotEntity::markSlotAvailable)
+                    .invokeAsync(new BookingSlotEntity.Command.MarkSlotAvailable(participant));
+        }
+
+        return call.handle((done, ex) -> {
+            if (ex == null) return BulkAvailabilityResult.ok(item);
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            log.warn("Bulk availability change failed for slot {}: {}", item.slotId(), cause.getMessage());
+            return BulkAvailabilityResult.failed(item, cause.getMessage());
+        });
+    }
+
+    // Books many lessons at once between the `from` and `to` slots (inclusive).
+    // Each lesson is for one student and may name its instructor and/or
+    // aircraft; otherwise any available one is assigned. Lessons that can't be
+    // placed are returned with the reason.
+    @Post("/schedule/batch")
+    public CompletionStage<BatchScheduleResponse> scheduleBatch(BatchScheduleRequest request) {
+        return timed("scheduleBatch", () -> {
+            if (request == null || request.lessons() == null || request.lessons().isEmpty()) {
+                throw HttpException.badRequest("lessons are required");
+            }
+            if (request.lessons().size() > batchMaxLessons) {
+                throw HttpException.badRequest("at most " + batchMaxLessons + " lessons are allowed per request");
+            }
+            SlotId from = slotIdOf(request.from());
+            SlotId to = slotIdOf(request.to());
+            if (to.compareTo(from) < 0) throw HttpException.badRequest("to must not be before from");
+            if (to.epochHour() - from.epochHour() + 1 > batchMaxHours) {
+                throw HttpException.badRequest("from..to may cover at most " + batchMaxHours + " hours");
+            }
+
+            Set<String> bookingIds = new HashSet<>();
+            List<BatchPlanner.Lesson> lessons = new ArrayList<>();
+            for (LessonRequest lesson : request.lessons()) {
+                if (lesson == null || isBlank(lesson.bookingId()) || isBlank(lesson.studentId())) {
+                    throw HttpException.badRequest("every lesson needs a bookingId and a studentId");
+                }
+                if (!bookingIds.add(lesson.bookingId())) {
+                    throw HttpException.badRequest("duplicate bookingId " + lesson.bookingId());
+                }
+                lessons.add(new BatchPlanner.Lesson(
+                        lesson.bookingId(),
+                        lesson.studentId(),
+                        isBlank(lesson.instructorId()) ? null : lesson.instructorId(),
+                        isBlank(lesson.aircraftId()) ? null : lesson.aircraftId()));
+            }
+
+            log.info("Scheduling {} lessons from {} to {}", lessons.size(), from, to);
+            return batchScheduler.schedule(lessons, from, to).thenApply(BatchScheduleResponse::of);
+        });
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    // Creates or replaces a recurring availability rule. The rule is applied
+    // to the booking slots in the background; only the slots that differ from
+    // what the rule applied before are marked or unmarked.
+    @Put("/availability-rules/{ruleId}")
+    public CompletionStage<AvailabilityRuleEntity.Status> putAvailabilityRule(
+            String ruleId, AvailabilityRuleRequest request) {
+        return timed("putAvailabilityRule", () -> {
+            if (request == null) throw HttpException.badRequest("request body is required");
+            AvailabilityRule rule = request.toRule();
+            rule.validate(ruleMaxSlots).ifPresent(error -> {
+                throw HttpException.badRequest(error);
+            });
+
+            log.info("Putting availability rule {}: {}", ruleId, rule);
+            return componentClient
+                    .forKeyValueEntity(ruleId)
+                    .method(AvailabilityRuleEntity::put)
+                    .invokeAsync(rule)
+                    .thenApply(status -> {
+                        scheduleRule(ruleId);
+                        return status;
+                    });
+        });
+    }
+
+    @Get("/availability-rules/{ruleId}")
+    public CompletionStage<AvailabilityRuleEntity.Status> getAvailabilityRule(String ruleId) {
+        return timed("getAvailabilityRule", () -> componentClient
+                .forKeyValueEntity(ruleId)
+                .method(AvailabilityRuleEntity::getStatus)
+                .invokeAsync());
+    }
+
+    // Deletes a rule, unmarking in the background every slot it marked
+    @Delete("/availability-rules/{ruleId}")
+    public CompletionStage<AvailabilityRuleEntity.Status> deleteAvailabilityRule(String ruleId) {
+        return timed("deleteAvailabilityRule", () -> {
+            log.info("Deleting availability rule {}", ruleId);
+            return componentClient
+                    .forKeyValueEntity(ruleId)
+                    .method(AvailabilityRuleEntity::delete)
+                    .invokeAsync()
+                    .thenApply(status -> {
+                        if (status.pendingUnmark() > 0) scheduleRule(ruleId);
+                        return status;
+                    });
+        });
+    }
+
+    private void scheduleRule(String ruleId) {
+        timerScheduler.createSingleTimer(
+                AvailabilityRuleAction.timerName(ruleId),
+                Duration.ZERO,
+                AvailabilityRuleAction.deferredProcess(componentClient, ruleId));
+    }
+
+    // Parses a slot ID path parameter, rejecting anything that isn't a
+    // `yyyy-MM-dd-HH` hour
+    private static SlotId slotIdOf(String slotId) {
+        return SlotId.tryParse(slotId)
+                .orElseThrow(() -> HttpException.badRequest("invalid slotId, expected yyyy-MM-dd-HH"));
+    }
+
+    // Reads an optional slot ID query parameter, such as a range bound
+    private SlotId slotParam(String name, SlotId defaultValue) {
+        return requestContext().queryParams().getString(name)
+                .map(value -> SlotId.tryParse(value)
+                        .orElseThrow(() -> HttpException.badRequest(name + " must be a slot ID of the form yyyy-MM-dd-HH")))
+                .orElse(defaultValue);
+    }
+
+    // Runs a route handler, recording its latency, up to when the returned
+    // stage completes, by outcome: `ok`, `rejected` for client errors raised by
+    // the handler, or `error`.
+    private <T> CompletionStage<T> timed(String route, Supplier<CompletionStage<T>> handler) {
+        long start = System.nanoTime();
+        CompletionStage<T> result;
+        try {
+            result = handler.get();
+        } catch (RuntimeException ex) {
+            FlightMetrics.recordRoute(route, outcomeOf(ex), region(), start);
+            throw ex;
         }
-        componentClient
-                .forEventSourcedEntity(slotId)
-                .method(BookingSlotEntity::unmarkSlotAvailable)
-                .invoke(new BookingSlotEntity.Command.UnmarkSlotAvailable(
-                        new Participant(request.participantId(), participantType)));
+        String region = region();
+        return result.whenComplete((value, ex) ->
+                FlightMetrics.recordRoute(route, ex == null ? "ok" : outcomeOf(ex), region, start));
+    }
 
-        return HttpResponses.ok();
+    // The region serving the request; blank when not deployed multi-region
+    private String region() {
+        String region = requestContext().selfRegion();
+        return region == null || region.isBlank() ? "default" : region;
+    }
+
+    private static String outcomeOf(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        return cause instanceof HttpException ? "rejected" : "error";
     }
 
     // Public API representation of a booking request
@@ -159,7 +786,211 @@ public class FlightEndpoint extends AbstractHttpEndpoint {
             String studentId, String aircraftId, String instructorId, String bookingId) {
     }
 
+    // Public API representation of a slot's bookings and available participants.
+    // Timeslot itself serializes to its compact snapshot form.
+    public record SlotAvailability(Set<Timeslot.Booking> bookings, Set<Participant> available) {
+        static SlotAvailability of(Timeslot slot) {
+            return new SlotAvailability(slot.bookings(), slot.available());
+        }
+    }
+
+    // Public API representation of a batch scheduling request. `from` and `to`
+    // are slot IDs.
+    public record BatchScheduleRequest(String from, String to, List<LessonRequest> lessons) {
+    }
+
+    public record LessonRequest(String bookingId, String studentId, String instructorId, String aircraftId) {
+    }
+
+    // `alreadyScheduled` lists the lessons whose booking ID was booked before
+    // the batch, e.g. by an earlier post of the same batch; they are not booked
+    // again
+    public record BatchScheduleResponse(
+            List<ScheduledLesson> booked,
+            List<ScheduledLesson> alreadyScheduled,
+            List<UnscheduledLesson> unscheduled) {
+        static BatchScheduleResponse of(BatchScheduler.Result result) {
+            List<ScheduledLesson> booked = result.booked().stream().map(ScheduledLesson::of).toList();
+            List<ScheduledLesson> alreadyScheduled = result.alreadyBooked().stream().map(ScheduledLesson::of).toList();
+            List<UnscheduledLesson> unscheduled = result.unassigned().stream()
+                    .map(lesson -> new UnscheduledLesson(
+                            lesson.bookingId(),
+                            lesson.studentId(),
+                            result.errors().getOrDefault(lesson.bookingId(),
+                                    "no slot with the student, an instructor and an aircraft available")))
+                    .toList();
+            return new BatchScheduleResponse(booked, alreadyScheduled, unscheduled);
+        }
+    }
+
+    public record ScheduledLesson(
+            String bookingId, String slotId, String studentId, String instructorId, String aircraftId) {
+        static ScheduledLesson of(BatchPlanner.Assignment a) {
+            return new ScheduledLesson(
+                    a.bookingId(), a.slotId().toString(), a.studentId(), a.instructorId(), a.aircraftId());
+        }
+    }
+
+    public record UnscheduledLesson(String bookingId, String studentId, String reason) {
+    }
+
+    // Public API representation of a recurring availability rule: `days` are
+    // day-of-week names (e.g. MONDAY), `firstDay` and `lastDay` ISO dates, and
+    // hours run from `fromHour` up to but not including `toHour`.
+    public record AvailabilityRuleRequest(
+            String participantId,
+            String participantType,
+            String firstDay,
+            String lastDay,
+            List<String> days,
+            int fromHour,
+            int toHour) {
+        AvailabilityRule toRule() {
+            try {
+                ParticipantType type = participantType == null
+                        ? null
+                        : ParticipantType.valueOf(participantType.trim().toUpperCase(Locale.ROOT));
+                Set<DayOfWeek> daysOfWeek = days == null ? Set.of() : days.stream()
+                        .map(day -> DayOfWeek.valueOf(day.trim().toUpperCase(Locale.ROOT)))
+                        .collect(Collectors.toCollection(() -> EnumSet.noneOf(DayOfWeek.class)));
+                return new AvailabilityRule(
+                        new Participant(participantId, type),
+                        firstDay == null ? null : LocalDate.parse(firstDay),
+                        lastDay == null ? null : LocalDate.parse(lastDay),
+                        daysOfWeek,
+                        fromHour,
+                        toHour);
+            } catch (IllegalArgumentException | DateTimeParseException ex) {
+                throw HttpException.badRequest("invalid availability rule: " + ex.getMessage());
+            }
+        }
+    }
+
+    // Public API representation of a participant's month. Booked slots map to
+    // their booking ID.
+    public record Calendar(
+            String participantId,
+            ParticipantType participantType,
+            String month,
+            List<String> available,
+            Map<String, String> booked,
+            List<String> canceled) {
+        static Calendar of(ParticipantCalendar calendar) {
+            Map<String, String> booked = new LinkedHashMap<>();
+            new TreeMap<>(calendar.bookings())
+                    .forEach((hour, bookingId) -> booked.put(calendar.slotId(hour), bookingId));
+            return new Calendar(
+                    calendar.participantId(),
+                    calendar.participantType(),
+                    calendar.month(),
+                    calendar.availableSlotIds(),
+                    booked,
+                    calendar.canceledSlotIds());
+        }
+    }
+
+    // Public API representation of a slot change event
+    public record SlotChange(String slotId, boolean sealed, List<ParticipantSlotsView.SlotRow> participants, long offset) {
+        static SlotChange of(SlotParticipantsView.SlotParticipantsRow row) {
+            return new SlotChange(row.slotId(), row.sealed(), row.participants(), row.offset());
+        }
+    }
+
+    // Public API representation of a participant's status change in one slot
+    public record ParticipantSlotChange(
+            String slotId, String participantId, String participantType, String bookingId, String status,
+            boolean sealed, long offset) {
+        static ParticipantSlotChange of(String participantId, SlotParticipantsView.SlotParticipantsRow row) {
+            return row.entryOf(participantId)
+                    .map(entry -> new ParticipantSlotChange(
+                            row.slotId(), participantId, entry.participantType(), entry.bookingId(), entry.status(),
+                            row.sealed(), row.offset()))
+                    .orElseGet(() -> new ParticipantSlotChange(
+                            row.slotId(), participantId, "", "", "unavailable", row.sealed(), row.offset()));
+        }
+    }
+
+    public record UtilizationRequest(List<String> participantIds, String from, String to) {
+    }
+
+    // Public API representation of fleet utilization. Weeks are ISO weeks
+    // (`yyyy-Www`); the first and last may be partial when they run past the
+    // requested months.
+    public record FleetUtilization(String from, String to, List<ParticipantUtilization> participants) {
+        static FleetUtilization of(List<String> participantIds, String from, String to, List<UtilizationRow> months) {
+            Map<String, List<UtilizationRow>> byParticipant = months.stream()
+                    .sorted(Comparator.comparing(UtilizationRow::month))
+                    .collect(Collectors.groupingBy(UtilizationRow::participantId));
+            List<ParticipantUtilization> participants = participantIds.stream()
+                    .map(id -> ParticipantUtilization.of(id, from + ".." + to, byParticipant.getOrDefault(id, List.of())))
+                    .toList();
+            return new FleetUtilization(from, to, participants);
+        }
+    }
+
+    public record ParticipantUtilization(
+            String participantId,
+            String participantType,
+            Utilization total,
+            List<Utilization> weeks,
+            List<Utilization> days) {
+        static ParticipantUtilization of(String participantId, String period, List<UtilizationRow> months) {
+            Utilization total = Utilization.empty(period);
+            Map<String, Utilization> weeks = new LinkedHashMap<>();
+            List<Utilization> days = new ArrayList<>();
+            String participantType = null;
+            for (UtilizationRow month : months) {
+                participantType = month.participantType();
+                total = total.plus(month.total());
+                // a week spanning two months has a partial count in each of them
+                month.weeks().forEach(week -> weeks.merge(week.period(), week, Utilization::plus));
+                days.addAll(month.days());
+            }
+            return new ParticipantUtilization(participantId, participantType, total, List.copyOf(weeks.values()), days);
+        }
+    }
+
     // Public API representation of an availability mark/unmark request
     public record AvailabilityRequest(String participantId, String participantType) {
     }
+
+    // Public API representation of a bulk availability request. The action of
+    // each item is either `mark` (the default) or `unmark`; any other action
+    // fails the item.
+    public record BulkAvailabilityRequest(List<BulkAvailabilityItem> items) {
+    }
+
+    public record BulkAvailabilityItem(
+            String slotId, String participantId, String participantType, String action) {
+        // `mark` or `unmark`, or null when the action is neither
+        String actionName() {
+            if (action == null) return "mark";
+            String name = action.trim().toLowerCase(Locale.ROOT);
+            return name.equals("mark") || name.equals("unmark") ? name : null;
+        }
+
+        boolean isUnmark() {
+            return "unmark".equals(actionName());
+        }
+    }
+
+    public record BulkAvailabilityResult(
+            String slotId, String participantId, String action, boolean success, String error) {
+        static BulkAvailabilityResult ok(BulkAvailabilityItem item) {
+            return new BulkAvailabilityResult(item.slotId(), item.participantId(), item.actionName(), true, "");
+        }
+
+        static BulkAvailabilityResult failed(BulkAvailabilityItem item, String error) {
+            if (item == null) return new BulkAvailabilityResult("", "", "", false, error);
+            String action = item.actionName() != null ? item.actionName() : item.action();
+            return new BulkAvailabilityResult(item.slotId(), item.participantId(), action, false, error);
+        }
+    }
+
+    public record BulkAvailabilityResponse(int succeeded, int failed, List<BulkAvailabilityResult> results) {
+        static BulkAvailabilityResponse of(List<BulkAvailabilityResult> results) {
+            int succeeded = (int) results.stream().filter(BulkAvailabilityResult::success).count();
+            return new BulkAvailabilityResponse(succeeded, results.size() - succeeded, results);
+        }
+    }
 }
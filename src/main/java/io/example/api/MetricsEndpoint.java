@@ -0,0 +1,34 @@
+package io.example.api;
+
+import akka.http.javadsl.model.ContentTypes;
+import akka.http.javadsl.model.HttpResponse;
+import akka.javasdk.annotations.Acl;
+import akka.javasdk.annotations.http.Get;
+import akka.javasdk.annotations.http.HttpEndpoint;
+import akka.javasdk.http.AbstractHttpEndpoint;
+import io.example.application.FlightConditionsEvaluator;
+import io.example.application.FlightMetrics;
+
+// Exposes the hot-path metrics (route latency, flight conditions checks,
+// agent calls and their coalescing, verdict cache, event propagation lag) in
+// the Prometheus text format for scraping.
+//
+// Only other services of the project (such as a metrics scraper deployed
+// alongside) may read it; it is not exposed to the internet.
+@Acl(allow = @Acl.Matcher(service = "*"))
+@HttpEndpoint
+public class MetricsEndpoint extends AbstractHttpEndpoint {
+
+    private final FlightConditionsEvaluator conditionsEvaluator;
+
+    public MetricsEndpoint(FlightConditionsEvaluator conditionsEvaluator) {
+        this.conditionsEvaluator = conditionsEvaluator;
+    }
+
+    @Get("/metrics")
+    public HttpResponse metrics() {
+        return HttpResponse.create()
+                .withEntity(ContentTypes.TEXT_PLAIN_UTF8, FlightMetrics.render(
+                        conditionsEvaluator.cacheStats(), conditionsEvaluator.coalescingStats()));
+    }
+}
@@ -0,0 +1,45 @@
+package io.example.api;
+
+import akka.http.javadsl.model.HttpEntities;
+import akka.http.javadsl.model.HttpResponse;
+import akka.http.javadsl.model.MediaTypes;
+import akka.http.javadsl.model.headers.RawHeader;
+import akka.javasdk.JsonSupport;
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import java.time.Duration;
+import java.util.function.Function;
+
+// Writes a stream as server-sent events carrying an `id:` line, which
+// HttpResponses.serverSentEvents doesn't, so that a reconnecting browser sends
+// it back as `Last-Event-ID`. Idle streams get a comment line every
+// KEEP_ALIVE so that proxies don't close them.
+final class ServerSentEvents {
+
+    private static final Duration KEEP_ALIVE = Duration.ofSeconds(15);
+    private static final ByteString HEARTBEAT = ByteString.fromString(":\n\n");
+
+    private ServerSentEvents() {
+    }
+
+    static <T> HttpResponse of(String eventType, Source<T, ?> events, Function<T, String> eventId) {
+        Source<ByteString, ?> data = events
+                .map(event -> ByteString.fromString(
+                        "id: " + eventId.apply(event) + "\n"
+                                + "event: " + eventType + "\n"
+                                + "data: " + toJson(event) + "\n\n"))
+                .keepAlive(KEEP_ALIVE, () -> HEARTBEAT);
+        return HttpResponse.create()
+                .withEntity(HttpEntities.create(MediaTypes.TEXT_EVENT_STREAM.toContentType(), data))
+                .addHeader(RawHeader.create("Cache-Control", "no-cache"));
+    }
+
+    private static String toJson(Object event) {
+        try {
+            return JsonSupport.getObjectMapper().writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + event.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.DeferredCall;
+import akka.javasdk.annotations.Component;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.timedaction.TimedAction;
+import akka.stream.Materializer;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import com.typesafe.config.Config;
+import io.example.domain.Participant;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Applies an availability rule to the booking slots, one chunk of slots per
+// run. Each run marks/unmarks the chunk with bounded parallelism, records what
+// succeeded on the AvailabilityRuleEntity and schedules the next run, until
+// nothing is left to do. Progress lives on the entity, so a run lost to a
+// restart is simply repeated by the timer.
+@Component(id = "availability-rule-action")
+public class AvailabilityRuleAction extends TimedAction {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityRuleAction.class);
+
+    private final ComponentClient componentClient;
+    private final Materializer materializer;
+    private final int chunkSize;
+    private final int parallelism;
+    private final Duration chunkInterval;
+    private final Duration retryInterval;
+    private final int maxAttempts;
+
+    public AvailabilityRuleAction(ComponentClient componentClient, Materializer materializer, Config config) {
+        this.componentClient = componentClient;
+        this.materializer = materializer;
+        Config rules = config.getConfig("flight.availability-rules");
+        this.chunkSize = rules.getInt("chunk-size");
+        this.parallelism = rules.getInt("parallelism");
+        this.chunkInterval = rules.getDuration("chunk-interval");
+        this.retryInterval = rules.getDuration("retry-interval");
+        this.maxAttempts = rules.getInt("max-attempts");
+    }
+
+    // One timer per rule, so rescheduling a rule replaces its pending run
+    public static String timerName(String ruleId) {
+        return "availability-rule-" + ruleId;
+    }
+
+    public static DeferredCall<String, Done> deferredProcess(ComponentClient componentClient, String ruleId) {
+        return componentClient
+                .forTimedAction()
+                .method(AvailabilityRuleAction::process)
+                .deferred(ruleId);
+    }
+
+    public Effect process(String ruleId) {
+        CompletionStage<Done> run = componentClient
+                .forKeyValueEntity(ruleId)
+                .method(AvailabilityRuleEntity::nextChunk)
+                .invokeAsync(chunkSize)
+                .thenCompose(chunk -> {
+                    if (chunk.isEmpty()) {
+                        logger.info("Availability rule {} is fully applied", ruleId);
+                        return CompletableFuture.completedFuture(Done.done());
+                    }
+                    return apply(chunk).thenCompose(progress -> componentClient
+                            .forKeyValueEntity(ruleId)
+                            .method(AvailabilityRuleEntity::confirm)
+                            .invokeAsync(progress)
+                            .thenApply(status -> {
+                                int done = progress.marked().size() + progress.unmarked().size() + progress.alreadyAvailable().size();
+                                int attempted = chunk.mark().size() + chunk.unmark().size();
+                                logger.info("Availability rule {}: applied {} of {} slot changes, {} to mark and {} to unmark left, {} given up",
+                                        ruleId, done, attempted, status.pendingMark(), status.pendingUnmark(), status.failed().size());
+                                // back off when nothing in the chunk went through
+                                Duration delay = done == 0 ? retryInterval : chunkInterval;
+                                timers().createSingleTimer(timerName(ruleId), delay, deferredProcess(componentClient, ruleId));
+                                return Done.done();
+                            }));
+                });
+        return effects().asyncDone(run);
+    }
+
+    private CompletionStage<AvailabilityRuleEntity.Progress> apply(AvailabilityRuleEntity.Chunk chunk) {
+        List<SlotChange> changes = new ArrayList<>();
+        chunk.unmark().forEach(slotId -> changes.add(new SlotChange(slotId, false)));
+        chunk.mark().forEach(slotId -> changes.add(new SlotChange(slotId, true)));
+
+        return Source.from(changes)
+                .mapAsyncUnordered(parallelism, change -> apply(chunk.participant(), change))
+                .runWith(Sink.seq(), materializer)
+                .thenApply(results -> {
+                    List<String> marked = new ArrayList<>();
+                    List<String> unmarked = new ArrayList<>();
+                    List<String> alreadyAvailable = new ArrayList<>();
+                    List<String> failed = new ArrayList<>();
+                    for (SlotResult result : results) {
+                        String slotId = result.change().slotId();
+                        if (!result.applied()) failed.add(slotId);
+                        else if (!result.change().mark()) unmarked.add(slotId);
+                        else (result.changed() ? marked : alreadyAvailable).add(slotId);
+                    }
+                    return new AvailabilityRuleEntity.Progress(marked, unmarked, alreadyAvailable, failed, maxAttempts);
+                });
+    }
+
+    // Whether the change went through, and for a mark whether the participant
+    // wasn't available already; one that failed is retried until it has failed
+    // `max-attempts` times
+    private CompletionStage<SlotResult> apply(Participant participant, SlotChange change) {
+        var slot = componentClient.forEventSourcedEntity(change.slotId());
+        CompletionStage<Boolean> call = change.mark()
+                ? slot.method(BookingSlotEntity::markSlotAvailableIfUnmarked)
+                        .invokeAsync(new BookingSlotEntity.Command.MarkSlotAvailable(participant))
+                : slot.method(BookingSlotEntity::unmarkSlotAvailable)
+                        .invokeAsync(new BookingSlotEntity.Command.UnmarkSlotAvailable(participant))
+                        .thenApply(__ -> true);
+        return call.handle((changed, ex) -> {
+            if (ex == null) return new SlotResult(change, true, changed);
+            logger.warn("Could not {} slot {} for {}", change.mark() ? "mark" : "unmark",
+                    change.slotId(), participant.id(), ex);
+            return new SlotResult(change, false, false);
+        });
+    }
+
+    private record SlotChange(String slotId, boolean mark) {
+    }
+
+    private record SlotResult(SlotChange change, boolean applied, boolean changed) {
+    }
+}
@@ -0,0 +1,246 @@
+package io.example.application;
+
+import akka.javasdk.annotations.Component;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import io.example.domain.AvailabilityRule;
+import io.example.domain.Participant;
+import io.example.domain.SlotId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+// A participant's recurring availability rule, together with the slots the
+// rule has been applied to so far. The slots still to mark or unmark are the
+// difference between what the rule covers and what has been applied, so
+// editing a rule only ever changes the slots that differ, and progress picks
+// up where it left off after a restart. AvailabilityRuleAction does the
+// marking, a chunk at a time.
+//
+// Deleting a rule unmarks everything it applied; the entity itself is deleted
+// once that is done.
+//
+// A rule only unmarks the slots it marked itself. A slot in which the
+// participant was already available when the rule got to it, marked by hand or
+// by another rule, is kept in `untouched` and left as it is when the rule is
+// edited or deleted. Rules of one participant may overlap, but the slots they
+// share belong to whichever marked them first: deleting that rule unmarks them
+// for the others too.
+//
+// Only slots from the current hour on are worked on. Earlier slots can't be
+// booked any more and are sealed by the close-out, after which every change to
+// them is rejected, so they are neither marked nor unmarked and drop out of
+// `applied`.
+//
+// A slot whose change keeps failing is given up after `max-attempts` tries and
+// listed as failed in the status. Putting or deleting the rule again retries
+// the failed slots.
+@Component(id = "availability-rule")
+public class AvailabilityRuleEntity extends KeyValueEntity<AvailabilityRuleEntity.State> {
+
+    @Override
+    public State emptyState() {
+        return State.EMPTY;
+    }
+
+    public Effect<Status> put(AvailabilityRule rule) {
+        if (rule == null || rule.participant() == null) {
+            return effects().error("a rule is required");
+        }
+        State state = currentState();
+        if (state.participant() != null && !state.participant().equals(rule.participant())) {
+            return effects().error("the participant of a rule can't be changed");
+        }
+        int now = currentHour();
+        State updated = new State(rule.participant(), rule, state.applied(), state.untouched(), Map.of(), List.of())
+                .withoutPast(now);
+        return effects().updateState(updated).thenReply(updated.status(now));
+    }
+
+    public Effect<Status> delete() {
+        int now = currentHour();
+        State state = currentState().withoutPast(now);
+        if (state.applied().isEmpty()) {
+            return effects().deleteEntity().thenReply(State.EMPTY.status(now));
+        }
+        State updated = new State(state.participant(), null, state.applied(), List.of(), Map.of(), List.of());
+        return effects().updateState(updated).thenReply(updated.status(now));
+    }
+
+    public ReadOnlyEffect<Status> getStatus() {
+        return effects().reply(currentState().status(currentHour()));
+    }
+
+    // The next slots to work on, at most `size` of them, unmarks first
+    public ReadOnlyEffect<Chunk> nextChunk(int size) {
+        int now = currentHour();
+        State state = currentState();
+        List<String> unmark = state.toUnmark(now).stream().limit(size).map(h -> SlotId.of(h).toString()).toList();
+        List<String> mark = state.toMark(now).stream()
+                .limit(size - unmark.size())
+                .map(h -> SlotId.of(h).toString())
+                .toList();
+        return effects().reply(new Chunk(state.participant(), mark, unmark));
+    }
+
+    // Records the slots that were successfully marked or unmarked, and counts an
+    // attempt against each one that failed
+    public Effect<Status> confirm(Progress progress) {
+        int now = currentHour();
+        State updated = currentState().confirm(progress).withoutPast(now);
+        // a deleted rule is done once everything it applied is unmarked or given up
+        if (updated.rule() == null && updated.toUnmark(now).isEmpty()) {
+            return effects().deleteEntity().thenReply(updated.status(now));
+        }
+        return effects().updateState(updated).thenReply(updated.status(now));
+    }
+
+    private static int currentHour() {
+        return SlotId.now().epochHour();
+    }
+
+    // `applied` holds the epoch hours (see SlotId) marked by this rule, and
+    // `untouched` the hours of the rule in which the participant was already
+    // available. A null rule means the rule was deleted and what it applied is
+    // being unmarked. `attempts` counts the failed tries of hours still
+    // pending, and `failed` lists the hours given up on; states stored before
+    // those were kept have none of the three.
+    public record State(
+            Participant participant,
+            AvailabilityRule rule,
+            List<Integer> applied,
+            List<Integer> untouched,
+            Map<Integer, Integer> attempts,
+            List<Integer> failed) {
+        static final State EMPTY = new State(null, null, List.of(), List.of(), Map.of(), List.of());
+
+        public State {
+            if (untouched == null) untouched = List.of();
+            if (attempts == null) attempts = Map.of();
+            if (failed == null) failed = List.of();
+        }
+
+        // The rule's slots from `fromHour` on
+        Set<Integer> target(int fromHour) {
+            Set<Integer> target = new HashSet<>();
+            if (rule != null) {
+                rule.slots().stream()
+                        .map(SlotId::epochHour)
+                        .filter(hour -> hour >= fromHour)
+                        .forEach(target::add);
+            }
+            return target;
+        }
+
+        List<Integer> toMark(int fromHour) {
+            Set<Integer> toMark = new TreeSet<>(target(fromHour));
+            toMark.removeAll(applied);
+            toMark.removeAll(untouched);
+            toMark.removeAll(failed);
+            return List.copyOf(toMark);
+        }
+
+        List<Integer> toUnmark(int fromHour) {
+            Set<Integer> toUnmark = new TreeSet<>(applied);
+            toUnmark.removeIf(hour -> hour < fromHour);
+            toUnmark.removeAll(target(fromHour));
+            toUnmark.removeAll(failed);
+            return List.copyOf(toUnmark);
+        }
+
+        // Also drops the untouched hours the rule no longer covers, as there is
+        // nothing to unmark in them
+        State withoutPast(int fromHour) {
+            Map<Integer, Integer> currentAttempts = new HashMap<>(attempts);
+            currentAttempts.keySet().removeIf(hour -> hour < fromHour);
+            Set<Integer> target = target(fromHour);
+            return new State(
+                    participant,
+                    rule,
+                    applied.stream().filter(hour -> hour >= fromHour).toList(),
+                    untouched.stream().filter(target::contains).toList(),
+                    currentAttempts,
+                    failed.stream().filter(hour -> hour >= fromHour).toList());
+        }
+
+        State confirm(Progress progress) {
+            Set<Integer> updated = new TreeSet<>(applied);
+            Set<Integer> updatedUntouched = new TreeSet<>(untouched);
+            Map<Integer, Integer> updatedAttempts = new HashMap<>(attempts);
+            Set<Integer> updatedFailed = new TreeSet<>(failed);
+            progress.marked().forEach(slot -> {
+                int hour = SlotId.parse(slot).epochHour();
+                updated.add(hour);
+                updatedAttempts.remove(hour);
+            });
+            progress.alreadyAvailable().forEach(slot -> {
+                int hour = SlotId.parse(slot).epochHour();
+                updatedUntouched.add(hour);
+                updatedAttempts.remove(hour);
+            });
+            progress.unmarked().forEach(slot -> {
+                int hour = SlotId.parse(slot).epochHour();
+                updated.remove(hour);
+                updatedAttempts.remove(hour);
+            });
+            progress.failed().forEach(slot -> {
+                int hour = SlotId.parse(slot).epochHour();
+                int tries = updatedAttempts.merge(hour, 1, Integer::sum);
+                if (tries >= progress.maxAttempts()) {
+                    updatedAttempts.remove(hour);
+                    updatedFailed.add(hour);
+                }
+            });
+            return new State(
+                    participant,
+                    rule,
+                    new ArrayList<>(updated),
+                    new ArrayList<>(updatedUntouched),
+                    updatedAttempts,
+                    new ArrayList<>(updatedFailed));
+        }
+
+        Status status(int fromHour) {
+            return new Status(
+                    rule,
+                    applied.size(),
+                    untouched.size(),
+                    toMark(fromHour).size(),
+                    toUnmark(fromHour).size(),
+                    failed.stream().map(hour -> SlotId.of(hour).toString()).toList());
+        }
+    }
+
+    public record Chunk(Participant participant, List<String> mark, List<String> unmark) {
+        public boolean isEmpty() {
+            return mark.isEmpty() && unmark.isEmpty();
+        }
+    }
+
+    // `alreadyAvailable` slots were not marked as the participant was available
+    // in them already. A slot in `failed` is given up once it has failed
+    // `maxAttempts` times.
+    public record Progress(
+            List<String> marked,
+            List<String> unmarked,
+            List<String> alreadyAvailable,
+            List<String> failed,
+            int maxAttempts) {
+    }
+
+    // `applied` slots are marked by the rule, and in `untouched` slots of the
+    // rule the participant was already available; `pendingMark` and
+    // `pendingUnmark` are what is left to do to bring them in line with the
+    // rule, and `failed` the slots given up on after repeated failures
+    public record Status(
+            AvailabilityRule rule,
+            int applied,
+            int untouched,
+            int pendingMark,
+            int pendingUnmark,
+            List<String> failed) {
+    }
+}
@@ -0,0 +1,266 @@
+package io.example.application;
+
+import akka.javasdk.client.ComponentClient;
+import akka.stream.Materializer;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import io.example.domain.BatchPlanner;
+import io.example.domain.BatchPlanner.Assignment;
+import io.example.domain.BatchPlanner.Lesson;
+import io.example.domain.BatchPlanner.Opening;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.SlotId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Books many lessons in one go. Availability for the whole horizon is read
+// once from SlotAvailabilityView, slots whose flight conditions aren't met are
+// dropped, and BatchPlanner assigns the lessons in memory. The plan is then
+// committed through BookingSlotEntity.bookSlot, `parallelism` bookings at a
+// time. Lessons whose booking fails (because the slot changed since it was
+// read) are planned again, once, against what is left. The participants of a
+// failed booking who are still available in its slot go back into what is
+// left, so only the ones who caused the failure are excluded.
+//
+// A slot whose flight conditions can't be checked is logged and left out of
+// the plan rather than failing the whole batch.
+//
+// bookSlot is only idempotent within one slot, so before planning, every
+// lesson's booking ID is looked up among its student's bookings in
+// SlotParticipantsView (maintained in every projection mode). Lessons that
+// are booked already are reported as such and not booked again, so a
+// re-posted or retried batch doesn't book the same booking ID into a second
+// slot. The view may lag, so a retry sent before the first batch's bookings
+// reach it can still be planned again.
+public class BatchScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchScheduler.class);
+
+    private final ComponentClient componentClient;
+    private final FlightConditionsEvaluator conditionsEvaluator;
+    private final Materializer materializer;
+    private final int parallelism;
+
+    public BatchScheduler(
+            ComponentClient componentClient,
+            FlightConditionsEvaluator conditionsEvaluator,
+            Materializer materializer,
+            int parallelism) {
+        this.componentClient = componentClient;
+        this.conditionsEvaluator = conditionsEvaluator;
+        this.materializer = materializer;
+        this.parallelism = parallelism;
+    }
+
+    public CompletionStage<Result> schedule(List<Lesson> lessons, SlotId from, SlotId to) {
+        return findExisting(lessons).thenCompose(existing -> {
+            List<Lesson> pending = lessons.stream()
+                    .filter(lesson -> !existing.containsKey(lesson.bookingId()))
+                    .toList();
+            if (!existing.isEmpty()) {
+                logger.info("{} of {} lessons are booked already", existing.size(), lessons.size());
+            }
+            List<Assignment> alreadyBooked = List.copyOf(existing.values());
+            if (pending.isEmpty()) {
+                return CompletableFuture.completedFuture(new Result(List.of(), alreadyBooked, List.of(), Map.of()));
+            }
+            return schedulePending(pending, from, to).thenApply(result -> new Result(
+                    result.booked(), alreadyBooked, result.unassigned(), result.errors()));
+        });
+    }
+
+    // The existing bookings of the lessons, by booking ID, found among the
+    // bookings of each lesson's student
+    private CompletionStage<Map<String, Assignment>> findExisting(List<Lesson> lessons) {
+        Set<String> bookingIds = new HashSet<>();
+        lessons.forEach(lesson -> bookingIds.add(lesson.bookingId()));
+        return Source.from(lessons.stream().map(Lesson::studentId).distinct().toList())
+                .mapAsyncUnordered(parallelism, this::bookingsOf)
+                .runWith(Sink.seq(), materializer)
+                .thenApply(bookings -> {
+                    Map<String, Assignment> existing = new HashMap<>();
+                    bookings.stream()
+                            .flatMap(List::stream)
+                            .filter(a -> bookingIds.contains(a.bookingId()))
+                            .forEach(a -> existing.put(a.bookingId(), a));
+                    return existing;
+                });
+    }
+
+    private CompletionStage<List<Assignment>> bookingsOf(String studentId) {
+        return componentClient
+                .forView()
+                .stream(SlotParticipantsView::streamSlots)
+                .source(new SlotParticipantsView.SlotRangeInput(
+                        SlotParticipantsView.SlotParticipantsRow.statusKey(studentId, "booked"),
+                        SlotId.MIN.epochHour(),
+                        SlotId.MAX.epochHour()))
+                .mapConcat(row -> row.rowsFor(studentId, "booked").stream()
+                        .map(entry -> assignmentOf(row, entry.bookingId()))
+                        .toList())
+                .runWith(Sink.seq(), materializer);
+    }
+
+    private static Assignment assignmentOf(SlotParticipantsView.SlotParticipantsRow row, String bookingId) {
+        Map<String, String> byType = new HashMap<>();
+        row.participants().stream()
+                .filter(p -> bookingId.equals(p.bookingId()))
+                .forEach(p -> byType.put(p.participantType(), p.participantId()));
+        return new Assignment(
+                bookingId,
+                SlotId.of(row.slotHour()),
+                byType.get(ParticipantType.STUDENT.name()),
+                byType.get(ParticipantType.INSTRUCTOR.name()),
+                byType.get(ParticipantType.AIRCRAFT.name()));
+    }
+
+    private CompletionStage<Result> schedulePending(List<Lesson> lessons, SlotId from, SlotId to) {
+        Map<String, Lesson> lessonsById = new HashMap<>();
+        lessons.forEach(lesson -> lessonsById.put(lesson.bookingId(), lesson));
+
+        return loadOpenings(from, to).thenCompose(openings -> {
+            BatchPlanner.Plan plan = BatchPlanner.plan(lessons, openings);
+            logger.info("Planned {} of {} lessons over {} open slots",
+                    plan.assignments().size(), lessons.size(), openings.size());
+            return commit(plan.assignments()).thenCompose(firstRound -> {
+                if (firstRound.failed().isEmpty()) {
+                    return CompletableFuture.completedFuture(
+                            new Result(firstRound.booked(), List.of(), plan.unassigned(), Map.of()));
+                }
+                // re-plan the failed lessons around what is left, plus whoever of
+                // each failed booking is still available in its slot
+                Map<SlotId, Opening> remaining = new HashMap<>();
+                plan.remaining().forEach(o -> remaining.put(o.slotId(), o));
+                List<Lesson> retry = new ArrayList<>();
+                for (Failure failure : firstRound.failed()) {
+                    retry.add(lessonsById.get(failure.assignment().bookingId()));
+                    remaining.merge(failure.returned().slotId(), failure.returned(), Opening::plus);
+                }
+                BatchPlanner.Plan replan = BatchPlanner.plan(retry, List.copyOf(remaining.values()));
+                logger.info("Re-planned {} of {} failed bookings", replan.assignments().size(), retry.size());
+                return commit(replan.assignments()).thenApply(secondRound -> {
+                    List<Assignment> booked = new ArrayList<>(firstRound.booked());
+                    booked.addAll(secondRound.booked());
+                    List<Lesson> unassigned = new ArrayList<>(plan.unassigned());
+                    unassigned.addAll(replan.unassigned());
+                    Map<String, String> errors = new HashMap<>();
+                    firstRound.failed().forEach(f -> errors.put(f.assignment().bookingId(), f.error()));
+                    secondRound.failed().forEach(f -> {
+                        unassigned.add(lessonsById.get(f.assignment().bookingId()));
+                        errors.put(f.assignment().bookingId(), f.error());
+                    });
+                    return new Result(booked, List.of(), unassigned, errors);
+                });
+            });
+        });
+    }
+
+    // Future slots in the horizon with someone of each role available and
+    // flight conditions that meet requirements
+    private CompletionStage<List<Opening>> loadOpenings(SlotId from, SlotId to) {
+        SlotId firstBookable = SlotId.now().plusHours(1);
+        SlotId start = from.compareTo(firstBookable) < 0 ? firstBookable : from;
+        return componentClient
+                .forView()
+                .stream(SlotAvailabilityView::streamOpenSlots)
+                .source(SlotAvailabilityView.OpenSlotsInput.between(start, to))
+                .mapAsync(parallelism, row -> conditionsEvaluator.evaluate(row.slotId())
+                        .thenApply(report ->
+                                report != null && Boolean.TRUE.equals(report.meetsRequirements())
+                                        ? Optional.of(new Opening(
+                                                SlotId.of(row.slotHour()),
+                                                row.participantsOf(ParticipantType.STUDENT),
+                                                row.participantsOf(ParticipantType.INSTRUCTOR),
+                                                row.participantsOf(ParticipantType.AIRCRAFT)))
+                                        : Optional.<Opening>empty())
+                        .exceptionally(ex -> {
+                            logger.warn("Could not check flight conditions for slot {}, leaving it out of the batch",
+                                    row.slotId(), ex);
+                            return Optional.empty();
+                        }))
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .runWith(Sink.seq(), materializer);
+    }
+
+    private CompletionStage<Round> commit(List<Assignment> assignments) {
+        return Source.from(assignments)
+                .mapAsyncUnordered(parallelism, this::book)
+                .runWith(Sink.seq(), materializer)
+                .thenApply(outcomes -> {
+                    List<Assignment> booked = new ArrayList<>();
+                    List<Failure> failed = new ArrayList<>();
+                    for (Outcome outcome : outcomes) {
+                        if (outcome.failure() == null) {
+                            booked.add(outcome.assignment());
+                        } else {
+                            failed.add(outcome.failure());
+                        }
+                    }
+                    return new Round(booked, failed);
+                });
+    }
+
+    private CompletionStage<Outcome> book(Assignment a) {
+        return componentClient
+                .forEventSourcedEntity(a.slotId().toString())
+                .method(BookingSlotEntity::bookSlot)
+                .invokeAsync(new BookingSlotEntity.Command.BookReservation(
+                        a.studentId(), a.aircraftId(), a.instructorId(), a.bookingId()))
+                .handle((done, ex) -> ex)
+                .thenCompose(ex -> {
+                    if (ex == null) return CompletableFuture.completedFuture(new Outcome(a, null));
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    logger.warn("Batch booking {} in slot {} failed: {}", a.bookingId(), a.slotId(), cause.getMessage());
+                    return stillAvailable(a).thenApply(returned ->
+                            new Outcome(a, new Failure(a, cause.getMessage(), returned)));
+                });
+    }
+
+    // The participants of a failed booking who are still available in its
+    // slot, read from the slot's primary; none if that read fails too
+    private CompletionStage<Opening> stillAvailable(Assignment a) {
+        Opening none = new Opening(a.slotId(), Set.of(), Set.of(), Set.of());
+        return componentClient
+                .forEventSourcedEntity(a.slotId().toString())
+                .method(BookingSlotEntity::getSlotFromPrimary)
+                .invokeAsync()
+                .thenApply(slot -> new Opening(
+                        a.slotId(),
+                        slot.isWaiting(a.studentId(), ParticipantType.STUDENT) ? Set.of(a.studentId()) : Set.of(),
+                        slot.isWaiting(a.instructorId(), ParticipantType.INSTRUCTOR) ? Set.of(a.instructorId()) : Set.of(),
+                        slot.isWaiting(a.aircraftId(), ParticipantType.AIRCRAFT) ? Set.of(a.aircraftId()) : Set.of()))
+                .exceptionally(ex -> none);
+    }
+
+    // The lessons that were booked, those that were booked already before the
+    // batch, and those that couldn't be. `errors` holds, by booking ID, the
+    // error of every booking that failed, including those of lessons that were
+    // then booked when re-planned.
+    public record Result(
+            List<Assignment> booked,
+            List<Assignment> alreadyBooked,
+            List<Lesson> unassigned,
+            Map<String, String> errors) {
+    }
+
+    private record Outcome(Assignment assignment, Failure failure) {
+    }
+
+    // `returned` is who of the booking is still available in its slot
+    private record Failure(Assignment assignment, String error, Opening returned) {
+    }
+
+    private record Round(List<Assignment> booked, List<Failure> failed) {
+    }
+}
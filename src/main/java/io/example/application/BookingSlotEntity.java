@@ -6,8 +6,8 @@ import akka.javasdk.eventsourcedentity.EventSourcedEntity;
 import akka.javasdk.eventsourcedentity.EventSourcedEntityContext;
 import io.example.domain.BookingEvent;
 import io.example.domain.Participant;
+import io.example.domain.SlotId;
 import io.example.domain.Timeslot;
-import java.util.HashSet;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,45 +20,87 @@ import static io.example.domain.Participant.ParticipantType.STUDENT;
 public class BookingSlotEntity extends EventSourcedEntity<Timeslot, BookingEvent> {
 
     private final String entityId;
+    // null when the entity ID isn't a valid slot ID; every change then fails
+    private final SlotId slotId;
     private static final Logger logger = LoggerFactory.getLogger(BookingSlotEntity.class);
 
     public BookingSlotEntity(EventSourcedEntityContext context) {
         this.entityId = context.entityId();
+        this.slotId = SlotId.tryParse(entityId).orElse(null);
     }
 
     public Effect<Done> markSlotAvailable(Command.MarkSlotAvailable cmd) {
-        if (cmd == null || cmd.participant() == null) {
-            return effects().error("participant is required");
+        String rejection = rejectMark(cmd);
+        if (rejection != null) {
+            return effects().error(rejection);
         }
-        if (cmd.participant().id() == null || cmd.participant().id().trim().isEmpty()) {
-            return effects().error("participantId is required");
+
+        Timeslot state = currentState();
+
+        if (state != null && state.isWaiting(cmd.participant().id(), cmd.participant().participantType())) {
+            return effects().reply(Done.done());
         }
-        if (cmd.participant().participantType() == null) {
-            return effects().error("participantType is required");
+
+        return effects().persist(markedAvailable(cmd)).thenReply(__ -> Done.done());
+    }
+
+    // As markSlotAvailable, but replies whether this call marked the
+    // participant: false when they were already available. Availability rules
+    // use it to only ever unmark what they marked themselves.
+    public Effect<Boolean> markSlotAvailableIfUnmarked(Command.MarkSlotAvailable cmd) {
+        String rejection = rejectMark(cmd);
+        if (rejection != null) {
+            return effects().error(rejection);
         }
 
         Timeslot state = currentState();
 
         if (state != null && state.isWaiting(cmd.participant().id(), cmd.participant().participantType())) {
-            return effects().reply(Done.done());
+            return effects().reply(false);
         }
 
-        BookingEvent.ParticipantMarkedAvailable event =
-                new BookingEvent.ParticipantMarkedAvailable(
-                        entityId,
-                        cmd.participant().id(),
-                        cmd.participant().participantType());
+        return effects().persist(markedAvailable(cmd)).thenReply(__ -> true);
+    }
 
+    private String rejectMark(Command.MarkSlotAvailable cmd) {
+        String rejection = rejectChange();
+        if (rejection != null) {
+            return rejection;
+        }
+        if (cmd == null || cmd.participant() == null) {
+            return "participant is required";
+        }
+        if (cmd.participant().id() == null || cmd.participant().id().trim().isEmpty()) {
+            return "participantId is required";
+        }
+        // the slot availability view uses this ID to mean "anyone of the role"
+        if (cmd.participant().id().equals(SlotAvailabilityView.ANY)) {
+            return "participantId " + SlotAvailabilityView.ANY + " is reserved";
+        }
+        if (cmd.participant().participantType() == null) {
+            return "participantType is required";
+        }
+        return null;
+    }
+
+    private BookingEvent.ParticipantMarkedAvailable markedAvailable(Command.MarkSlotAvailable cmd) {
         logger.info(
                 "Marking slot {} available for participant {} ({})",
                 entityId,
                 cmd.participant().id(),
                 cmd.participant().participantType());
 
-        return effects().persist(event).thenReply(__ -> Done.done());
+        return new BookingEvent.ParticipantMarkedAvailable(
+                slotId,
+                cmd.participant().id(),
+                cmd.participant().participantType());
     }
 
     public Effect<Done> unmarkSlotAvailable(Command.UnmarkSlotAvailable cmd) {
+        String rejection = rejectChange();
+        if (rejection != null) {
+            return effects().error(rejection);
+        }
         if (cmd == null || cmd.participant() == null) {
             return effects().error("participant is required");
         }
@@ -78,7 +120,7 @@ public class BookingSlotEntity extends EventSourcedEntity<Timeslot, BookingEvent
 
         BookingEvent.ParticipantUnmarkedAvailable event =
                 new BookingEvent.ParticipantUnmarkedAvailable(
-                        entityId,
+                        slotId,
                         cmd.participant().id(),
                         cmd.participant().participantType());
 
@@ -91,9 +133,13 @@ public class BookingSlotEntity extends EventSourcedEntity<Timeslot, BookingEvent
         return effects().persist(event).thenReply(__ -> Done.done());
     }
 
-    // NOTE: booking a slot should produce 3
-    // `ParticipantBooked` events
+    // Booking a slot produces a single `SlotBooked` event carrying all
+    // three participants
     public Effect<Done> bookSlot(Command.BookReservation cmd) {
+        String rejection = rejectChange();
+        if (rejection != null) {
+            return effects().error(rejection);
+        }
         if (cmd == null) return effects().error("booking request is required");
         if (cmd.bookingId() == null || cmd.bookingId().trim().isEmpty()) return effects().error("bookingId is required");
 
@@ -109,19 +155,20 @@ public class BookingSlotEntity extends EventSourcedEntity<Timeslot, BookingEvent
             return effects().error("slot is not bookable");
         }
 
-        List<BookingEvent> events = List.of(
-                new BookingEvent.ParticipantBooked(entityId, cmd.studentId(), STUDENT, cmd.bookingId()),
-                new BookingEvent.ParticipantBooked(entityId, cmd.aircraftId(), AIRCRAFT, cmd.bookingId()),
-                new BookingEvent.ParticipantBooked(entityId, cmd.instructorId(), INSTRUCTOR, cmd.bookingId())
-        );
+        BookingEvent.SlotBooked event = new BookingEvent.SlotBooked(
+                slotId, cmd.studentId(), cmd.aircraftId(), cmd.instructorId(), cmd.bookingId());
 
         logger.info("Booking slot {} with bookingId {}", entityId, cmd.bookingId());
-        return effects().persistAll(events).thenReply(__ -> Done.done());
+        return effects().persist(event).thenReply(__ -> Done.done());
     }
 
-    // NOTE: canceling a booking should produce 3
-    // `ParticipantCanceled` events
+    // Canceling a booking produces a single `BookingCanceled` event
+    // carrying all three participants of the booking
     public Effect<Done> cancelBooking(String bookingId) {
+        String rejection = rejectChange();
+        if (rejection != null) {
+            return effects().error(rejection);
+        }
         if (bookingId == null || bookingId.trim().isEmpty()) {
             return effects().error("bookingId is required");
         }
@@ -135,48 +182,99 @@ public class BookingSlotEntity extends EventSourcedEntity<Timeslot, BookingEvent
             return effects().reply(Done.done());
         }
 
-        // Map the 3 participants of this booking to 3 ParticipantCanceled events
-        List<BookingEvent> events = bookings.stream()
-                .map(b -> new BookingEvent.ParticipantCanceled(
-                        entityId,
-                        b.participant().id(),
-                        b.participant().participantType(),
-                        bookingId))
-                .map(e -> (BookingEvent) e)
-                .toList();
+        BookingEvent.BookingCanceled event = new BookingEvent.BookingCanceled(
+                slotId,
+                participantOfType(bookings, STUDENT),
+                participantOfType(bookings, AIRCRAFT),
+                participantOfType(bookings, INSTRUCTOR),
+                bookingId);
+
+        logger.info("Canceling booking {} in slot {}", bookingId, entityId);
+        return effects().persist(event).thenReply(__ -> Done.done());
+    }
+
+    // Closes a slot whose hour has passed. A sealed slot rejects every further
+    // change and is ready to be archived and purged. Replies with the final
+    // state of the slot.
+    public Effect<Timeslot> seal() {
+        if (slotId == null) {
+            return effects().error(invalidSlotId());
+        }
+        if (isDeleted()) {
+            return effects().error("slot " + entityId + " has been purged");
+        }
+        if (currentState().sealed()) {
+            return effects().reply(currentState());
+        }
+        // the slot covers its whole hour, so it can be closed once the next one starts
+        if (slotId.plusHours(1).isAfter(SlotId.now())) {
+            return effects().error("slot " + entityId + " has not passed yet");
+        }
+        logger.info("Sealing slot {}", entityId);
+        return effects().persist(new BookingEvent.SlotSealed(slotId)).thenReply(state -> state);
+    }
+
+    // Deletes a sealed slot once it has been archived. The SlotPurged event
+    // lets the views and the participant slots drop what they derived from it.
+    public Effect<Done> purge() {
+        if (isDeleted()) {
+            return effects().reply(Done.done());
+        }
+        if (!currentState().sealed()) {
+            return effects().error("slot " + entityId + " must be sealed before it is purged");
+        }
+        logger.info("Purging slot {}", entityId);
+        List<String> participantIds = List.copyOf(currentState().participantIds());
+        return effects()
+                .persist(new BookingEvent.SlotPurged(slotId, participantIds))
+                .deleteEntity()
+                .thenReply(__ -> Done.done());
+    }
+
+    // Why the slot can't take a change, or null when it can
+    private String rejectChange() {
+        if (slotId == null) return invalidSlotId();
+        if (currentState().sealed()) return "slot " + entityId + " is closed";
+        return null;
+    }
 
-        logger.info("Canceling booking {} in slot {}, emitting {} events", bookingId, entityId, events.size());
+    private String invalidSlotId() {
+        return "invalid slot ID " + entityId + ", expected yyyy-MM-dd-HH";
+    }
 
-        return effects().persistAll(events).thenReply(__ -> Done.done());
+    private static String participantOfType(List<Timeslot.Booking> bookings, Participant.ParticipantType type) {
+        return bookings.stream()
+                .filter(b -> b.participant().participantType() == type)
+                .map(b -> b.participant().id())
+                .findFirst()
+                .orElse("");
     }
 
+    // Read-only, so in replicated-read mode this is answered by the local
+    // replica, which may not have caught up with the latest writes made in
+    // the slot's primary region
     public ReadOnlyEffect<Timeslot> getSlot() {
         return effects().reply(currentState());
     }
 
+    // The same read, declared as a (non read-only) command so that it is
+    // routed to the slot's primary region and always sees the latest state
+    public Effect<Timeslot> getSlotFromPrimary() {
+        return effects().reply(currentState());
+    }
+
     @Override
     public Timeslot emptyState() {
-        // IMPORTANT: mutable sets (Timeslot mutates them)
-        return new Timeslot(new HashSet<>(), new HashSet<>());
+        // Timeslot is immutable and shares structure between versions, so the
+        // same empty instance can be handed to every entity
+        return Timeslot.empty();
     }
 
     @Override
     public Timeslot applyEvent(BookingEvent event) {
-        logger.info("Applying event {} to slot {}", event, entityId);
-
-        Timeslot state = currentState();
-
-        if (event instanceof BookingEvent.ParticipantMarkedAvailable e) {
-            return state.reserve(e);
-        } else if (event instanceof BookingEvent.ParticipantUnmarkedAvailable e) {
-            return state.unreserve(e);
-        } else if (event instanceof BookingEvent.ParticipantBooked e) {
-            return state.book(e);
-        } else if (event instanceof BookingEvent.ParticipantCanceled e) {
-            return state.cancelBooking(e.bookingId());
-        }
-
-        return state;
+        // Runs for every event on every recovery, so keep this quiet
+        logger.debug("Applying event {} to slot {}", event, entityId);
+        return currentState().onEvent(event);
     }
 
     public sealed interface Command {
@@ -0,0 +1,115 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.DependencyProvider;
+import akka.javasdk.ServiceSetup;
+import akka.javasdk.annotations.Setup;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.timer.TimerScheduler;
+import com.typesafe.config.Config;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Service-wide wiring. Components are instantiated per request/message, so
+// anything that has to outlive a single invocation (caches, counters) is
+// created once here and handed out through the dependency provider.
+@Setup
+public class Bootstrap implements ServiceSetup {
+
+    private static final Logger logger = LoggerFactory.getLogger(Bootstrap.class);
+
+    private final Config config;
+    private final ComponentClient componentClient;
+    private final TimerScheduler timerScheduler;
+
+    public Bootstrap(Config config, ComponentClient componentClient, TimerScheduler timerScheduler) {
+        this.config = config;
+        this.componentClient = componentClient;
+        this.timerScheduler = timerScheduler;
+    }
+
+    // Kicks off the flight conditions precomputation and the slot close-out,
+    // which then keep themselves scheduled. The timers are named, so every node
+    // starting up replaces the same timer rather than adding another run. The
+    // precomputation is only started when no run is pending, so that a deploy
+    // doesn't pull its next run forward.
+    @Override
+    public void onStartup() {
+        Config conditions = config.getConfig("flight-conditions");
+        boolean agentMode = conditions.getString("evaluator").trim().toLowerCase(Locale.ROOT).equals("agent");
+        if (agentMode && conditions.getBoolean("precompute.enabled")) {
+            startPrecompute(conditions.getDuration("precompute.interval"));
+        }
+        if (config.getBoolean("flight.close-out.enabled")) {
+            timerScheduler.createSingleTimer(
+                    SlotCloseOutAction.TIMER_NAME,
+                    Duration.ofSeconds(30),
+                    SlotCloseOutAction.deferredRun(componentClient));
+        }
+    }
+
+    // A run is taken to be lost once it is overdue by a whole interval
+    private void startPrecompute(Duration interval) {
+        componentClient
+                .forKeyValueEntity(FlightConditionsPrecomputeAction.TIMER_NAME)
+                .method(PrecomputeScheduleEntity::getSchedule)
+                .invokeAsync()
+                .thenApply(schedule -> schedule.isPending(Instant.now(), interval))
+                .exceptionally(ex -> {
+                    logger.warn("Could not read the flight conditions precompute schedule", ex);
+                    return false;
+                })
+                .thenCompose(pending -> {
+                    if (pending) {
+                        logger.info("Flight conditions precompute run already scheduled");
+                        return CompletableFuture.completedFuture(Done.done());
+                    }
+                    Duration delay = Duration.ofSeconds(5);
+                    timerScheduler.createSingleTimer(
+                            FlightConditionsPrecomputeAction.TIMER_NAME,
+                            delay,
+                            FlightConditionsPrecomputeAction.deferredRun(componentClient));
+                    return FlightConditionsPrecomputeAction.recordSchedule(componentClient, Instant.now().plus(delay));
+                })
+                .exceptionally(ex -> {
+                    logger.warn("Could not schedule the flight conditions precompute", ex);
+                    return Done.done();
+                });
+    }
+
+    @Override
+    public DependencyProvider createDependencyProvider() {
+        FlightConditionsEvaluator conditionsEvaluator =
+                FlightConditionsEvaluator.fromConfig(config.getConfig("flight-conditions"), componentClient);
+        Config closeOut = config.getConfig("flight.close-out");
+        // purged slots only survive in the archive, so there must be one
+        if (closeOut.getBoolean("enabled") && closeOut.getString("archive-file").isBlank()) {
+            throw new IllegalStateException(
+                    "flight.close-out is enabled but no archive file is set (SLOT_ARCHIVE_FILE)");
+        }
+        SlotArchive slotArchive = SlotArchive.fromConfig(closeOut);
+        ParticipantSlotsProjection projection = ParticipantSlotsProjection.fromConfig(config);
+        logger.info("Participant slots are projected in {} mode", projection);
+
+        return new DependencyProvider() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T getDependency(Class<T> clazz) {
+                if (clazz == FlightConditionsEvaluator.class) {
+                    return (T) conditionsEvaluator;
+                }
+                if (clazz == SlotArchive.class) {
+                    return (T) slotArchive;
+                }
+                if (clazz == ParticipantSlotsProjection.class) {
+                    return (T) projection;
+                }
+                throw new IllegalArgumentException("Unknown dependency type: " + clazz.getName());
+            }
+        };
+    }
+}
@@ -3,6 +3,7 @@ package io.example.application;
 import akka.javasdk.agent.Agent;
 import akka.javasdk.annotations.Component;
 import akka.javasdk.annotations.FunctionTool;
+import io.example.domain.FlightConditions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -57,10 +58,6 @@ public class FlightConditionsAgent extends Agent {
     @FunctionTool(description = "Queries the weather conditions as they are forecasted based on the time slot ID")
     public String getWeatherForecast(String timeSlotId) {
         logger.info("Agent is calling tool getWeatherForecast for slot: {}", timeSlotId);
-        // 13th is unlucky
-        if (timeSlotId.contains("-13-")) {
-            return "Thunderstorms and high winds expected.";
-        }
-        return "Clear skies, light breeze.";
+        return FlightConditions.forecast(timeSlotId);
     }
 }
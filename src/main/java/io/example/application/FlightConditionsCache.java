@@ -0,0 +1,116 @@
+package io.example.application;
+
+import com.typesafe.config.Config;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Bounded, TTL-based cache of flight conditions verdicts keyed by slot ID.
+// The forecast for a given hour doesn't change within minutes, so repeated
+// bookings for the same slot can reuse the previous verdict instead of paying
+// for another agent round-trip. Entries are evicted least-recently-used once
+// the configured capacity is reached.
+public class FlightConditionsCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightConditionsCache.class);
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public FlightConditionsCache(boolean enabled, int maxEntries, Duration ttl) {
+        if (maxEntries <= 0) throw new IllegalArgumentException("max-entries must be positive");
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        // access-ordered map gives us LRU iteration order for free
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                boolean evict = size() > FlightConditionsCache.this.maxEntries;
+                if (evict) evictions.increment();
+                return evict;
+            }
+        };
+    }
+
+    // Reads the `flight-conditions.cache` block from application.conf
+    public static FlightConditionsCache fromConfig(Config config) {
+        return new FlightConditionsCache(
+                config.getBoolean("enabled"),
+                config.getInt("max-entries"),
+                config.getDuration("ttl"));
+    }
+
+    // Returns the cached verdict for the slot if present and fresh, otherwise
+    // runs the loader and caches its result once it completes. Inconclusive
+    // reports (null, or without a verdict) are handed back to the caller but
+    // never cached.
+    public CompletionStage<FlightConditionsAgent.ConditionsReport> getOrLoad(
+            String slotId, Function<String, CompletionStage<FlightConditionsAgent.ConditionsReport>> loader) {
+        if (!enabled) {
+            return loader.apply(slotId);
+        }
+
+        FlightConditionsAgent.ConditionsReport cached = get(slotId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        return loader.apply(slotId).thenApply(report -> {
+            put(slotId, report);
+            return report;
+        });
+    }
+
+    public FlightConditionsAgent.ConditionsReport get(String slotId) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry entry = entries.get(slotId);
+            if (entry != null && now - entry.storedAt() < ttlNanos) {
+                hits.increment();
+                return entry.report();
+            }
+            if (entry != null) {
+                entries.remove(slotId);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(String slotId, FlightConditionsAgent.ConditionsReport report) {
+        if (report == null || report.meetsRequirements() == null) {
+            logger.debug("Not caching inconclusive conditions report for slot {}", slotId);
+            return;
+        }
+        synchronized (entries) {
+            entries.put(slotId, new Entry(report, System.nanoTime()));
+        }
+    }
+
+    public Stats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    private record Entry(FlightConditionsAgent.ConditionsReport report, long storedAt) {
+    }
+
+    public record Stats(long hits, long misses, long evictions, int size) {
+    }
+}
@@ -0,0 +1,44 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.annotations.Component;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import java.time.Duration;
+import java.time.Instant;
+
+// The latest precomputed flight conditions verdict for a slot, keyed by slot
+// ID. Written by FlightConditionsPrecomputeAction ahead of time and read by
+// FlightConditionsEvaluator before it considers calling the agent.
+@Component(id = "flight-conditions")
+public class FlightConditionsEntity extends KeyValueEntity<FlightConditionsEntity.Verdict> {
+
+    @Override
+    public Verdict emptyState() {
+        return Verdict.NONE;
+    }
+
+    public Effect<Done> store(Verdict verdict) {
+        if (verdict == null || verdict.meetsRequirements() == null) {
+            return effects().error("a verdict is required");
+        }
+        return effects().updateState(verdict).thenReply(Done.done());
+    }
+
+    // Called once the slot has been closed out; its verdict is no longer needed
+    public Effect<Done> delete() {
+        return effects().deleteEntity().thenReply(Done.done());
+    }
+
+    public ReadOnlyEffect<Verdict> getVerdict() {
+        return effects().reply(currentState());
+    }
+
+    public record Verdict(Boolean meetsRequirements, Instant evaluatedAt) {
+        static final Verdict NONE = new Verdict(null, null);
+
+        // A verdict counts only if one was stored within the last maxAge
+        public boolean isFresh(Instant now, Duration maxAge) {
+            return meetsRequirements != null && evaluatedAt != null && evaluatedAt.plus(maxAge).isAfter(now);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.client.ComponentClient;
+import com.typesafe.config.Config;
+import io.example.domain.FlightConditions;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Decides whether flight conditions for a slot meet requirements. In `rules`
+// mode the no-go criteria are applied in-process against the forecast and the
+// model is never called. In `agent` mode the FlightConditionsAgent is consulted
+// (behind the verdict cache), which is the opt-in path for free-text reasoning.
+//
+// Agent calls are single-flight per slot: while a call for a slot is pending,
+// further cache misses for that slot wait on it instead of starting their own
+// agent session. That covers the burst of bookings for one hour at schedule
+// release, which all miss the cache before the first verdict lands.
+//
+// In `agent` mode FlightConditionsPrecomputeAction keeps verdicts for the
+// upcoming slots in FlightConditionsEntity, and a cache miss reads the stored
+// verdict before falling back to the agent. Stored verdicts older than
+// `precompute.max-age` are ignored.
+public class FlightConditionsEvaluator {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightConditionsEvaluator.class);
+
+    public enum Mode {
+        RULES,
+        AGENT
+    }
+
+    private final Mode mode;
+    private final ComponentClient componentClient;
+    private final FlightConditionsCache cache;
+    private final Duration storedVerdictMaxAge;
+    private final ConcurrentHashMap<String, CompletableFuture<FlightConditionsAgent.ConditionsReport>> inFlight =
+            new ConcurrentHashMap<>();
+
+    private final LongAdder agentCalls = new LongAdder();
+    private final LongAdder coalescedCalls = new LongAdder();
+    private final LongAdder storedVerdicts = new LongAdder();
+
+    public FlightConditionsEvaluator(
+            Mode mode, ComponentClient componentClient, FlightConditionsCache cache, Duration storedVerdictMaxAge) {
+        this.mode = mode;
+        this.componentClient = componentClient;
+        this.cache = cache;
+        this.storedVerdictMaxAge = storedVerdictMaxAge;
+        logger.info("Flight conditions are evaluated in {} mode", mode);
+    }
+
+    // Reads the `flight-conditions` block from application.conf
+    public static FlightConditionsEvaluator fromConfig(Config config, ComponentClient componentClient) {
+        Mode mode = Mode.valueOf(config.getString("evaluator").trim().toUpperCase(Locale.ROOT));
+        return new FlightConditionsEvaluator(
+                mode,
+                componentClient,
+                FlightConditionsCache.fromConfig(config.getConfig("cache")),
+                config.getDuration("precompute.max-age"));
+    }
+
+    // Rules are evaluated in place and return an already completed stage; the
+    // agent is called without blocking the caller's thread
+    public CompletionStage<FlightConditionsAgent.ConditionsReport> evaluate(String slotId) {
+        return switch (mode) {
+            case RULES -> CompletableFuture.completedFuture(evaluateRules(slotId));
+            case AGENT -> cache.getOrLoad(slotId, this::storedOrAgent);
+        };
+    }
+
+    // Asks the agent for a fresh verdict and stores it for bookings to read.
+    // Used by FlightConditionsPrecomputeAction.
+    public CompletionStage<Done> refresh(String slotId) {
+        return queryAgentOnce(slotId).thenCompose(report -> {
+            if (report == null || report.meetsRequirements() == null) {
+                logger.warn("Inconclusive flight conditions for slot {}, nothing stored", slotId);
+                return CompletableFuture.completedFuture(Done.done());
+            }
+            cache.put(slotId, report);
+            return componentClient
+                    .forKeyValueEntity(slotId)
+                    .method(FlightConditionsEntity::store)
+                    .invokeAsync(new FlightConditionsEntity.Verdict(report.meetsRequirements(), Instant.now()));
+        });
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    public FlightConditionsCache.Stats cacheStats() {
+        return cache.stats();
+    }
+
+    public CoalescingStats coalescingStats() {
+        return new CoalescingStats(agentCalls.sum(), coalescedCalls.sum(), storedVerdicts.sum(), inFlight.size());
+    }
+
+    private FlightConditionsAgent.ConditionsReport evaluateRules(String slotId) {
+        String forecast = FlightConditions.forecast(slotId);
+        return new FlightConditionsAgent.ConditionsReport(slotId, FlightConditions.meetsRequirements(forecast));
+    }
+
+    private CompletionStage<FlightConditionsAgent.ConditionsReport> storedOrAgent(String slotId) {
+        return componentClient
+                .forKeyValueEntity(slotId)
+                .method(FlightConditionsEntity::getVerdict)
+                .invokeAsync()
+                .thenCompose(verdict -> {
+                    if (verdict.isFresh(Instant.now(), storedVerdictMaxAge)) {
+                        storedVerdicts.increment();
+                        return CompletableFuture.completedFuture(
+                                new FlightConditionsAgent.ConditionsReport(slotId, verdict.meetsRequirements()));
+                    }
+                    return queryAgentOnce(slotId);
+                });
+    }
+
+    // Joins the pending agent call for the slot, or starts one. The call is
+    // forgotten as soon as it completes, whatever the outcome, so a failure is
+    // only shared by the callers that were already waiting on it.
+    private CompletionStage<FlightConditionsAgent.ConditionsReport> queryAgentOnce(String slotId) {
+        CompletableFuture<FlightConditionsAgent.ConditionsReport> call = new CompletableFuture<>();
+        CompletableFuture<FlightConditionsAgent.ConditionsReport> pending = inFlight.putIfAbsent(slotId, call);
+        if (pending != null) {
+            coalescedCalls.increment();
+            return pending;
+        }
+
+        agentCalls.increment();
+        CompletionStage<FlightConditionsAgent.ConditionsReport> agentCall;
+        try {
+            agentCall = queryAgent(slotId);
+        } catch (RuntimeException ex) {
+            agentCall = CompletableFuture.failedFuture(ex);
+        }
+        agentCall.whenComplete((report, ex) -> {
+            inFlight.remove(slotId, call);
+            if (ex != null) {
+                call.completeExceptionally(ex);
+            } else {
+                call.complete(report);
+            }
+        });
+        return call;
+    }
+
+    private CompletionStage<FlightConditionsAgent.ConditionsReport> queryAgent(String slotId) {
+        long start = System.nanoTime();
+        return componentClient
+                .forAgent()
+                .inSession(slotId)
+                .method(FlightConditionsAgent::query)
+                .invokeAsync(slotId)
+                .whenComplete((report, ex) -> FlightMetrics.recordAgentCall(start));
+    }
+
+    // Agent calls started on this node, cache misses that joined one already
+    // pending instead, and cache misses answered by a stored verdict
+    public record CoalescingStats(long agentCalls, long coalesced, long stored, int inFlight) {
+    }
+}
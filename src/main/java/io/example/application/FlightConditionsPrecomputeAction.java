@@ -0,0 +1,112 @@
+package io.example.application;
+
+import akka.Done;
+import akka.NotUsed;
+import akka.javasdk.DeferredCall;
+import akka.javasdk.annotations.Component;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.timedaction.TimedAction;
+import akka.stream.Materializer;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import com.typesafe.config.Config;
+import io.example.domain.SlotId;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Evaluates the flight conditions of every slot in the upcoming booking horizon
+// and stores the verdicts in FlightConditionsEntity, so that bookings read a
+// stored verdict instead of calling the agent. Runs only in `agent` mode; each
+// run schedules the next one and records it in PrecomputeScheduleEntity, and
+// the first is scheduled by Bootstrap.
+@Component(id = "flight-conditions-precompute")
+public class FlightConditionsPrecomputeAction extends TimedAction {
+
+    public static final String TIMER_NAME = "flight-conditions-precompute";
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightConditionsPrecomputeAction.class);
+
+    private final ComponentClient componentClient;
+    private final FlightConditionsEvaluator conditionsEvaluator;
+    private final Materializer materializer;
+    private final int horizonHours;
+    private final int parallelism;
+    private final Duration interval;
+    private final Duration maxAge;
+
+    public FlightConditionsPrecomputeAction(
+            ComponentClient componentClient,
+            FlightConditionsEvaluator conditionsEvaluator,
+            Materializer materializer,
+            Config config) {
+        this.componentClient = componentClient;
+        this.conditionsEvaluator = conditionsEvaluator;
+        this.materializer = materializer;
+        Config precompute = config.getConfig("flight-conditions.precompute");
+        this.horizonHours = (int) precompute.getDuration("horizon").toHours();
+        this.parallelism = precompute.getInt("parallelism");
+        this.interval = precompute.getDuration("interval");
+        this.maxAge = precompute.getDuration("max-age");
+    }
+
+    // Refreshes the verdicts of the slots from the next hour up to the end of
+    // the horizon, at most `parallelism` agent calls at a time. Slots whose
+    // stored verdict is still fresh when the next run is due are skipped, so
+    // the agent is only asked about new slots and verdicts about to expire. A
+    // slot that fails is logged and left to the next run.
+    public Effect precompute() {
+        if (conditionsEvaluator.mode() != FlightConditionsEvaluator.Mode.AGENT) {
+            logger.info("Flight conditions are evaluated by rules, nothing to precompute");
+            return effects().done();
+        }
+        SlotId first = SlotId.now().plusHours(1);
+        logger.info("Precomputing flight conditions for {} slots from {}", horizonHours, first);
+
+        Instant nextRun = Instant.now().plus(interval);
+        CompletionStage<Done> run = Source.from(IntStream.range(0, horizonHours).boxed().toList())
+                .map(first::plusHours)
+                .mapAsyncUnordered(parallelism, slot -> refreshIfStale(slot.toString(), nextRun)
+                        .exceptionally(ex -> {
+                            logger.warn("Could not precompute flight conditions for slot {}", slot, ex);
+                            return false;
+                        }))
+                .runWith(Sink.fold(0, (refreshed, done) -> done ? refreshed + 1 : refreshed), materializer)
+                .thenCompose(refreshed -> {
+                    logger.info("Refreshed flight conditions for {} of {} slots", refreshed, horizonHours);
+                    // replaces any pending timer of the same name, so there is only ever one run scheduled
+                    timers().createSingleTimer(TIMER_NAME, interval, deferredRun(componentClient));
+                    return recordSchedule(componentClient, Instant.now().plus(interval));
+                });
+        return effects().asyncDone(run);
+    }
+
+    // True if the agent was asked, false if the stored verdict was kept
+    private CompletionStage<Boolean> refreshIfStale(String slotId, Instant nextRun) {
+        return componentClient
+                .forKeyValueEntity(slotId)
+                .method(FlightConditionsEntity::getVerdict)
+                .invokeAsync()
+                .thenCompose(verdict -> verdict.isFresh(nextRun, maxAge)
+                        ? CompletableFuture.completedFuture(false)
+                        : conditionsEvaluator.refresh(slotId).thenApply(__ -> true));
+    }
+
+    static CompletionStage<Done> recordSchedule(ComponentClient componentClient, Instant nextRunAt) {
+        return componentClient
+                .forKeyValueEntity(TIMER_NAME)
+                .method(PrecomputeScheduleEntity::scheduled)
+                .invokeAsync(nextRunAt);
+    }
+
+    static DeferredCall<NotUsed, Done> deferredRun(ComponentClient componentClient) {
+        return componentClient
+                .forTimedAction()
+                .method(FlightConditionsPrecomputeAction::precompute)
+                .deferred();
+    }
+}
@@ -0,0 +1,135 @@
+package io.example.application;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Process-wide hot-path metrics: latency per endpoint route, the flight
+// conditions check inside createBooking (and the agent call behind it), and
+// propagation lag from a BookingSlotEntity event to the consumer and from the
+// derived ParticipantSlotEntity event to the participant slots view, and from a
+// BookingSlotEntity event straight to the slot participants view.
+//
+// Kept static so that every component can record without wiring, including
+// view updaters, which cannot have dependencies injected. Rendered in the
+// Prometheus text format by the metrics endpoint.
+public final class FlightMetrics {
+
+    private static final Map<String, LatencyHistogram> routes = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> conditionsChecks = new ConcurrentHashMap<>();
+    private static final LatencyHistogram agentCalls = new LatencyHistogram();
+    private static final LatencyHistogram consumerLag = new LatencyHistogram();
+    private static final LatencyHistogram viewLag = new LatencyHistogram();
+    private static final LatencyHistogram directViewLag = new LatencyHistogram();
+    private static final LatencyHistogram propagationLag = new LatencyHistogram();
+
+    private FlightMetrics() {
+    }
+
+    // Route latencies are labelled with the region serving them, so that each
+    // region of a multi-region deployment can be told apart
+    public static void recordRoute(String route, String outcome, String region, long startNanos) {
+        routes.computeIfAbsent(labels("route", route, "outcome", outcome, "region", region), __ -> new LatencyHistogram())
+                .record(System.nanoTime() - startNanos);
+    }
+
+    public static void recordConditionsCheck(String mode, long startNanos) {
+        conditionsChecks.computeIfAbsent(labels("mode", mode), __ -> new LatencyHistogram())
+                .record(System.nanoTime() - startNanos);
+    }
+
+    public static void recordAgentCall(long startNanos) {
+        agentCalls.record(System.nanoTime() - startNanos);
+    }
+
+    // Lag between a BookingSlotEntity event being persisted and the consumer handling it
+    public static void recordConsumerLag(Optional<ZonedDateTime> eventTime) {
+        eventTime.ifPresent(time -> consumerLag.record(Duration.between(time.toInstant(), Instant.now())));
+    }
+
+    // Lag between a ParticipantSlotEntity event being persisted and the view row reflecting it
+    public static void recordViewLag(Optional<ZonedDateTime> eventTime) {
+        eventTime.ifPresent(time -> viewLag.record(Duration.between(time.toInstant(), Instant.now())));
+    }
+
+    // Lag between a BookingSlotEntity event being persisted and the slot
+    // participants view row reflecting it
+    public static void recordDirectViewLag(Optional<ZonedDateTime> eventTime) {
+        eventTime.ifPresent(time -> directViewLag.record(Duration.between(time.toInstant(), Instant.now())));
+    }
+
+    // Lag between a BookingSlotEntity event being persisted and the participant
+    // slots view row reflecting it, across both hops. Null for events written
+    // before the source time was carried along.
+    public static void recordPropagationLag(Instant sourceTime) {
+        if (sourceTime != null) propagationLag.record(Duration.between(sourceTime, Instant.now()));
+    }
+
+    public static String render(
+            FlightConditionsCache.Stats cacheStats, FlightConditionsEvaluator.CoalescingStats coalescingStats) {
+        StringBuilder out = new StringBuilder();
+
+        out.append("# HELP flight_http_request_seconds Latency of FlightEndpoint routes.\n");
+        out.append("# TYPE flight_http_request_seconds histogram\n");
+        new TreeMap<>(routes).forEach((labels, h) -> h.render(out, "flight_http_request_seconds", labels));
+
+        out.append("# HELP flight_conditions_check_seconds Latency of the flight conditions check in createBooking.\n");
+        out.append("# TYPE flight_conditions_check_seconds histogram\n");
+        new TreeMap<>(conditionsChecks).forEach((labels, h) -> h.render(out, "flight_conditions_check_seconds", labels));
+
+        out.append("# HELP flight_conditions_agent_seconds Latency of FlightConditionsAgent calls (cache misses only).\n");
+        out.append("# TYPE flight_conditions_agent_seconds histogram\n");
+        agentCalls.render(out, "flight_conditions_agent_seconds", "");
+
+        out.append("# HELP flight_conditions_cache_requests_total Verdict cache lookups by result.\n");
+        out.append("# TYPE flight_conditions_cache_requests_total counter\n");
+        out.append("flight_conditions_cache_requests_total{result=\"hit\"} ").append(cacheStats.hits()).append('\n');
+        out.append("flight_conditions_cache_requests_total{result=\"miss\"} ").append(cacheStats.misses()).append('\n');
+        out.append("# HELP flight_conditions_cache_evictions_total Verdicts evicted to stay within capacity.\n");
+        out.append("# TYPE flight_conditions_cache_evictions_total counter\n");
+        out.append("flight_conditions_cache_evictions_total ").append(cacheStats.evictions()).append('\n');
+        out.append("# HELP flight_conditions_cache_entries Verdicts currently cached.\n");
+        out.append("# TYPE flight_conditions_cache_entries gauge\n");
+        out.append("flight_conditions_cache_entries ").append(cacheStats.size()).append('\n');
+
+        out.append("# HELP flight_conditions_agent_requests_total Agent verdict requests on cache misses, by whether they were answered by a precomputed verdict, started a call or joined a pending one.\n");
+        out.append("# TYPE flight_conditions_agent_requests_total counter\n");
+        out.append("flight_conditions_agent_requests_total{result=\"called\"} ").append(coalescingStats.agentCalls()).append('\n');
+        out.append("flight_conditions_agent_requests_total{result=\"coalesced\"} ").append(coalescingStats.coalesced()).append('\n');
+        out.append("flight_conditions_agent_requests_total{result=\"stored\"} ").append(coalescingStats.stored()).append('\n');
+        out.append("# HELP flight_conditions_agent_in_flight Agent calls currently pending.\n");
+        out.append("# TYPE flight_conditions_agent_in_flight gauge\n");
+        out.append("flight_conditions_agent_in_flight ").append(coalescingStats.inFlight()).append('\n');
+
+        out.append("# HELP booking_slot_consumer_lag_seconds Time from a booking slot event to its propagation by the consumer.\n");
+        out.append("# TYPE booking_slot_consumer_lag_seconds histogram\n");
+        consumerLag.render(out, "booking_slot_consumer_lag_seconds", "");
+
+        out.append("# HELP participant_slots_view_lag_seconds Time from a participant slot event to the view row update.\n");
+        out.append("# TYPE participant_slots_view_lag_seconds histogram\n");
+        viewLag.render(out, "participant_slots_view_lag_seconds", "");
+
+        out.append("# HELP slot_participants_view_lag_seconds Time from a booking slot event to the slot participants view row update.\n");
+        out.append("# TYPE slot_participants_view_lag_seconds histogram\n");
+        directViewLag.render(out, "slot_participants_view_lag_seconds", "");
+
+        out.append("# HELP booking_slot_propagation_seconds Time from a booking slot event to the participant slots view row update, end to end.\n");
+        out.append("# TYPE booking_slot_propagation_seconds histogram\n");
+        propagationLag.render(out, "booking_slot_propagation_seconds", "");
+
+        return out.toString();
+    }
+
+    private static String labels(String... keyValues) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            if (i > 0) out.append(',');
+            out.append(keyValues[i]).append("=\"").append(keyValues[i + 1]).append('"');
+        }
+        return out.toString();
+    }
+}
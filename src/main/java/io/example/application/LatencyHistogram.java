@@ -0,0 +1,58 @@
+package io.example.application;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+// A fixed-bucket latency histogram, cheap enough to record on every request.
+// Bucket bounds follow the Prometheus convention: each bucket counts the
+// observations less than or equal to its upper bound, and the last bucket is
+// +Inf.
+public class LatencyHistogram {
+
+    static final double[] BUCKET_SECONDS = {
+            0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60
+    };
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_SECONDS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        long clamped = Math.max(0, nanos);
+        double seconds = clamped / 1_000_000_000.0;
+        int bucket = 0;
+        while (bucket < BUCKET_SECONDS.length && seconds > BUCKET_SECONDS[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+        count.increment();
+        sumNanos.add(clamped);
+    }
+
+    public void record(Duration duration) {
+        record(duration.toNanos());
+    }
+
+    // Appends this histogram in the Prometheus text exposition format
+    void render(StringBuilder out, String name, String labels) {
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_SECONDS.length; i++) {
+            cumulative += buckets[i].sum();
+            out.append(name).append("_bucket{").append(prefix).append("le=\"").append(BUCKET_SECONDS[i])
+                    .append("\"} ").append(cumulative).append('\n');
+        }
+        cumulative += buckets[BUCKET_SECONDS.length].sum();
+        out.append(name).append("_bucket{").append(prefix).append("le=\"+Inf\"} ").append(cumulative).append('\n');
+        String plainLabels = labels.isEmpty() ? "" : "{" + labels + "}";
+        out.append(name).append("_sum").append(plainLabels).append(' ')
+                .append(sumNanos.sum() / 1_000_000_000.0).append('\n');
+        out.append(name).append("_count").append(plainLabels).append(' ').append(count.sum()).append('\n');
+    }
+}
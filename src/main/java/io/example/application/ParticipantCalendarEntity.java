@@ -0,0 +1,155 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.annotations.Component;
+import akka.javasdk.annotations.TypeName;
+import akka.javasdk.eventsourcedentity.EventSourcedEntity;
+import akka.javasdk.eventsourcedentity.EventSourcedEntityContext;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.ParticipantCalendar;
+import io.example.domain.SlotId;
+
+// A participant's slots for one month, held as hour bitmaps (see
+// ParticipantCalendar). Keyed {participantId}-{yyyy-MM}, so a participant has
+// one calendar entity per month rather than one participant slot entity per
+// hour, and a single read answers what the participant is doing that month.
+// Written by SlotToParticipantConsumer in the `calendar` projection mode, in
+// place of the participant slot entities.
+//
+// Commands are idempotent: one that wouldn't change the calendar persists no
+// event, so redelivered booking slot events don't grow the journal.
+@Component(id = "participant-calendar")
+public class ParticipantCalendarEntity
+        extends EventSourcedEntity<ParticipantCalendar, ParticipantCalendarEntity.Event> {
+
+    private final String participantId;
+    private final String month;
+
+    public ParticipantCalendarEntity(EventSourcedEntityContext context) {
+        this.participantId = participantIdOf(context.entityId());
+        this.month = monthOf(context.entityId());
+    }
+
+    // Calendars are keyed by {participantId}-{month}; the month is always the
+    // trailing `yyyy-MM` so participant IDs containing dashes are fine
+    public static String calendarId(String participantId, String month) {
+        return participantId + "-" + month;
+    }
+
+    public static String participantIdOf(String calendarId) {
+        return calendarId.substring(0, calendarId.length() - 8);
+    }
+
+    public static String monthOf(String calendarId) {
+        return calendarId.substring(calendarId.length() - 7);
+    }
+
+    @Override
+    public ParticipantCalendar emptyState() {
+        return ParticipantCalendar.empty(participantId, month);
+    }
+
+    public ReadOnlyEffect<ParticipantCalendar> getCalendar() {
+        return effects().reply(currentState());
+    }
+
+    public Effect<Done> markAvailable(Commands.MarkAvailable mark) {
+        int hour = hourOf(mark.slotId());
+        if (hour < 0) {
+            return effects().error("Slot " + mark.slotId() + " is not in " + month);
+        }
+        if (currentState().isAvailable(hour)) {
+            return effects().reply(Done.done());
+        }
+        return effects()
+                .persist(new Event.HourMarkedAvailable(hour, mark.participantType()))
+                .thenReply(__ -> Done.done());
+    }
+
+    public Effect<Done> unmarkAvailable(Commands.UnmarkAvailable unmark) {
+        int hour = hourOf(unmark.slotId());
+        if (hour < 0) {
+            return effects().error("Slot " + unmark.slotId() + " is not in " + month);
+        }
+        if (!currentState().isAvailable(hour)) {
+            return effects().reply(Done.done());
+        }
+        return effects()
+                .persist(new Event.HourUnmarkedAvailable(hour, unmark.participantType()))
+                .thenReply(__ -> Done.done());
+    }
+
+    public Effect<Done> book(Commands.Book book) {
+        int hour = hourOf(book.slotId());
+        if (hour < 0) {
+            return effects().error("Slot " + book.slotId() + " is not in " + month);
+        }
+        if (currentState().isBooked(hour, book.bookingId())) {
+            return effects().reply(Done.done());
+        }
+        return effects()
+                .persist(new Event.HourBooked(hour, book.participantType(), book.bookingId()))
+                .thenReply(__ -> Done.done());
+    }
+
+    public Effect<Done> cancel(Commands.Cancel cancel) {
+        int hour = hourOf(cancel.slotId());
+        if (hour < 0) {
+            return effects().error("Slot " + cancel.slotId() + " is not in " + month);
+        }
+        if (!currentState().isBooked(hour, cancel.bookingId())) {
+            return effects().reply(Done.done());
+        }
+        return effects()
+                .persist(new Event.HourCanceled(hour, cancel.participantType(), cancel.bookingId()))
+                .thenReply(__ -> Done.done());
+    }
+
+    private int hourOf(SlotId slotId) {
+        return slotId.month().equals(month) ? slotId.hourOfMonth() : -1;
+    }
+
+    public sealed interface Commands {
+        record MarkAvailable(SlotId slotId, ParticipantType participantType) implements Commands {
+        }
+
+        record UnmarkAvailable(SlotId slotId, ParticipantType participantType) implements Commands {
+        }
+
+        record Book(SlotId slotId, ParticipantType participantType, String bookingId) implements Commands {
+        }
+
+        record Cancel(SlotId slotId, ParticipantType participantType, String bookingId) implements Commands {
+        }
+    }
+
+    // Events carry the hour of the month rather than the slot ID; the
+    // participant and month are the entity ID
+    public sealed interface Event {
+        @TypeName("hour-marked-available")
+        record HourMarkedAvailable(int hour, ParticipantType participantType) implements Event {
+        }
+
+        @TypeName("hour-unmarked-available")
+        record HourUnmarkedAvailable(int hour, ParticipantType participantType) implements Event {
+        }
+
+        @TypeName("hour-booked")
+        record HourBooked(int hour, ParticipantType participantType, String bookingId) implements Event {
+        }
+
+        @TypeName("hour-canceled")
+        record HourCanceled(int hour, ParticipantType participantType, String bookingId) implements Event {
+        }
+    }
+
+    @Override
+    public ParticipantCalendar applyEvent(Event event) {
+        return switch (event) {
+            case Event.HourMarkedAvailable e -> currentState().markAvailable(e.hour(), e.participantType());
+            case Event.HourUnmarkedAvailable e -> currentState().unmarkAvailable(e.hour(), e.participantType());
+            case Event.HourBooked e -> currentState().book(e.hour(), e.participantType(), e.bookingId());
+            case Event.HourCanceled e -> currentState().cancel(e.hour(), e.participantType(), e.bookingId());
+        };
+    }
+}
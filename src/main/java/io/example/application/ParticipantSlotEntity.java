@@ -6,10 +6,12 @@ import akka.javasdk.annotations.TypeName;
 import akka.javasdk.eventsourcedentity.EventSourcedEntity;
 import io.example.application.ParticipantSlotEntity.Event.MarkedAvailable;
 import io.example.domain.Participant.ParticipantType;
+import java.time.Instant;
 
 
 import static io.example.application.ParticipantSlotEntity.Event.Booked;
 import static io.example.application.ParticipantSlotEntity.Event.Canceled;
+import static io.example.application.ParticipantSlotEntity.Event.Purged;
 import static io.example.application.ParticipantSlotEntity.Event.UnmarkedAvailable;
 
 @Component(id = "participant-slot")
@@ -17,26 +19,39 @@ public class ParticipantSlotEntity
         extends EventSourcedEntity<ParticipantSlotEntity.State, ParticipantSlotEntity.Event> {
 
     public Effect<Done> unmarkAvailable(Commands.UnmarkAvailable unmark) {
-        UnmarkedAvailable event = new UnmarkedAvailable(unmark.slotId(), unmark.participantId(), unmark.participantType());
+        UnmarkedAvailable event = new UnmarkedAvailable(
+                unmark.slotId(), unmark.participantId(), unmark.participantType(), unmark.sourceTime());
         Effect.OnSuccessBuilder<State> stateOnSuccessBuilder = effects().persist(event).deleteEntity();
         return stateOnSuccessBuilder.thenReply(__ -> Done.done());
     }
 
     public Effect<Done> markAvailable(Commands.MarkAvailable mark) {
         return effects()
-                .persist(new MarkedAvailable(mark.slotId(), mark.participantId(), mark.participantType()))
+                .persist(new MarkedAvailable(mark.slotId(), mark.participantId(), mark.participantType(), mark.sourceTime()))
                 .thenReply(__ -> Done.done());
     }
 
     public Effect<Done> book(Commands.Book book) {
         return effects()
-                .persist(new Booked(book.slotId(), book.participantId(), book.participantType(), book.bookingId()))
+                .persist(new Booked(
+                        book.slotId(), book.participantId(), book.participantType(), book.bookingId(), book.sourceTime()))
                 .thenReply(__ -> Done.done());
     }
 
     public Effect<Done> cancel(Commands.Cancel cancel) {
         return effects()
-                .persist(new Canceled(cancel.slotId(), cancel.participantId(), cancel.participantType(), cancel.bookingId()))
+                .persist(new Canceled(
+                        cancel.slotId(), cancel.participantId(), cancel.participantType(), cancel.bookingId(),
+                        cancel.sourceTime()))
+                .thenReply(__ -> Done.done());
+    }
+
+    // Drops the participant slot once its booking slot has been closed out and
+    // archived (see SlotCloseOutAction)
+    public Effect<Done> purge(Commands.Purge purge) {
+        return effects()
+                .persist(new Purged(purge.slotId(), purge.participantId()))
+                .deleteEntity()
                 .thenReply(__ -> Done.done());
     }
 
@@ -45,47 +60,65 @@ public class ParticipantSlotEntity
     }
 
     public sealed interface Commands {
-        record MarkAvailable(String slotId, String participantId, ParticipantType participantType)
+        record MarkAvailable(
+                String slotId, String participantId, ParticipantType participantType, Instant sourceTime)
                 implements Commands {
         }
 
-        record UnmarkAvailable(String slotId, String participantId, ParticipantType participantType)
+        record UnmarkAvailable(
+                String slotId, String participantId, ParticipantType participantType, Instant sourceTime)
                 implements Commands {
         }
 
         record Book(
-                String slotId, String participantId, ParticipantType participantType, String bookingId)
+                String slotId, String participantId, ParticipantType participantType, String bookingId,
+                Instant sourceTime)
                 implements Commands {
         }
 
         record Cancel(
-                String slotId, String participantId, ParticipantType participantType, String bookingId)
+                String slotId, String participantId, ParticipantType participantType, String bookingId,
+                Instant sourceTime)
                 implements Commands {
         }
+
+        record Purge(String slotId, String participantId) implements Commands {
+        }
     }
 
+    // `sourceTime` is when the BookingSlotEntity event that caused this one was
+    // persisted, so the view can record end-to-end propagation lag. It is null
+    // in events written before it was added.
     public sealed interface Event {
         @TypeName("marked-available")
-        record MarkedAvailable(String slotId, String participantId, ParticipantType participantType)
+        record MarkedAvailable(
+                String slotId, String participantId, ParticipantType participantType, Instant sourceTime)
                 implements Event {
         }
 
         @TypeName("unmarked-available")
-        record UnmarkedAvailable(String slotId, String participantId, ParticipantType participantType)
+        record UnmarkedAvailable(
+                String slotId, String participantId, ParticipantType participantType, Instant sourceTime)
                 implements Event {
         }
 
         @TypeName("participant-booked")
         record Booked(
-                String slotId, String participantId, ParticipantType participantType, String bookingId)
+                String slotId, String participantId, ParticipantType participantType, String bookingId,
+                Instant sourceTime)
                 implements Event {
         }
 
         @TypeName("participant-canceled")
         record Canceled(
-                String slotId, String participantId, ParticipantType participantType, String bookingId)
+                String slotId, String participantId, ParticipantType participantType, String bookingId,
+                Instant sourceTime)
                 implements Event {
         }
+
+        @TypeName("participant-purged")
+        record Purged(String slotId, String participantId) implements Event {
+        }
     }
 
     @Override
@@ -99,6 +132,10 @@ public class ParticipantSlotEntity
             return new State(e.slotId(), e.participantId(), e.participantType(), "booked");
         } else if (event instanceof Canceled e) {
             return new State(e.slotId(), e.participantId(), e.participantType(), "canceled");
+        } else if (event instanceof Purged e) {
+            // deleted in the command handler, like unmark-available
+            ParticipantType type = currentState() == null ? null : currentState().participantType();
+            return new State(e.slotId(), e.participantId(), type, "purged");
         }
 
         return currentState();
@@ -0,0 +1,32 @@
+package io.example.application;
+
+import com.typesafe.config.Config;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+// How participant slot statuses are projected from booking slot events, set by
+// `flight.participant-slots.projection` (see application.conf). Parsed once at
+// startup so that a misspelled mode stops the service instead of leaving the
+// consumer committing offsets without writing anything.
+public enum ParticipantSlotsProjection {
+    // only SlotParticipantsView, projected straight from the events
+    DIRECT,
+    // as DIRECT, plus the participant calendar entities
+    CALENDAR,
+    // the participant slot entities feeding ParticipantSlotsView
+    ENTITY;
+
+    // Reads `flight.participant-slots.projection` from application.conf
+    public static ParticipantSlotsProjection fromConfig(Config config) {
+        String value = config.getString("flight.participant-slots.projection").trim();
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException(
+                    "Unknown flight.participant-slots.projection '" + value + "', expected one of "
+                            + Arrays.stream(values()).map(mode -> mode.name().toLowerCase(Locale.ROOT))
+                                    .collect(Collectors.joining(", ")));
+        }
+    }
+}
@@ -5,6 +5,7 @@ import akka.javasdk.annotations.Consume;
 import akka.javasdk.annotations.Query;
 import akka.javasdk.view.TableUpdater;
 import akka.javasdk.view.View;
+import java.time.Instant;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,6 +19,9 @@ public class ParticipantSlotsView extends View {
     public static class ParticipantSlotsViewUpdater extends TableUpdater<SlotRow> {
 
         public Effect<SlotRow> onEvent(ParticipantSlotEntity.Event event) {
+            FlightMetrics.recordViewLag(updateContext().metadata().asCloudEvent().time());
+            FlightMetrics.recordPropagationLag(sourceTimeOf(event));
+
             if (event instanceof ParticipantSlotEntity.Event.MarkedAvailable e) {
                 SlotRow row = new SlotRow(
                         e.slotId(),
@@ -28,6 +32,8 @@ public class ParticipantSlotsView extends View {
                 return effects().updateRow(row);
             } else if (event instanceof ParticipantSlotEntity.Event.UnmarkedAvailable e) {
                 return effects().deleteRow();
+            } else if (event instanceof ParticipantSlotEntity.Event.Purged e) {
+                return effects().deleteRow();
             } else if (event instanceof ParticipantSlotEntity.Event.Booked e) {
                 SlotRow row = new SlotRow(
                         e.slotId(),
@@ -49,6 +55,16 @@ public class ParticipantSlotsView extends View {
             logger.warn("Ignoring unknown event type: {}", event.getClass().getName());
             return effects().ignore();
         }
+
+        private static Instant sourceTimeOf(ParticipantSlotEntity.Event event) {
+            return switch (event) {
+                case ParticipantSlotEntity.Event.MarkedAvailable e -> e.sourceTime();
+                case ParticipantSlotEntity.Event.UnmarkedAvailable e -> e.sourceTime();
+                case ParticipantSlotEntity.Event.Booked e -> e.sourceTime();
+                case ParticipantSlotEntity.Event.Canceled e -> e.sourceTime();
+                case ParticipantSlotEntity.Event.Purged e -> null;
+            };
+        }
     }
 
     public record SlotRow(
@@ -65,6 +81,19 @@ public class ParticipantSlotsView extends View {
     public record SlotList(List<SlotRow> slots) {
     }
 
+    // Slot IDs sort chronologically as strings, so `from`/`to` bound a time
+    // range (inclusive). The page token is opaque; pass an empty one for the
+    // first page and the returned `nextPageToken` for each following page.
+    public record SlotPageInput(
+            String participantId, String status, String from, String to, String pageToken, int pageSize) {
+    }
+
+    public record SlotRangeInput(String participantId, String status, String from, String to) {
+    }
+
+    public record SlotPage(List<SlotRow> slots, String nextPageToken, boolean hasMore) {
+    }
+
     @Query("SELECT * as slots FROM participant_slots WHERE participantId = :participantId")
     public QueryEffect<SlotList> getSlotsByParticipant(String participantId) {
         return queryResult();
@@ -74,4 +103,29 @@ public class ParticipantSlotsView extends View {
     public QueryEffect<SlotList> getSlotsByParticipantAndStatus(ParticipantStatusInput input) {
         return queryResult();
     }
+
+    @Query("""
+            SELECT * AS slots, next_page_token() AS nextPageToken, has_more() AS hasMore
+            FROM participant_slots
+            WHERE participantId = :participantId AND status = :status
+              AND slotId >= :from AND slotId <= :to
+            ORDER BY slotId
+            OFFSET page_token_offset(:pageToken)
+            LIMIT :pageSize
+            """)
+    public QueryEffect<SlotPage> getSlotPage(SlotPageInput input) {
+        return queryResult();
+    }
+
+    // Streams matching rows in slot order as they are read, rather than
+    // materializing the whole result
+    @Query("""
+            SELECT * FROM participant_slots
+            WHERE participantId = :participantId AND status = :status
+              AND slotId >= :from AND slotId <= :to
+            ORDER BY slotId
+            """)
+    public QueryStreamEffect<SlotRow> streamSlots(SlotRangeInput input) {
+        return queryStreamResult();
+    }
 }
@@ -0,0 +1,163 @@
+package io.example.application;
+
+import akka.javasdk.annotations.Component;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.Query;
+import akka.javasdk.view.TableUpdater;
+import akka.javasdk.view.View;
+import io.example.domain.BookingEvent;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.ParticipantCalendar;
+import io.example.domain.SlotId;
+import io.example.domain.Utilization;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Available, booked and canceled hour counts per participant per day and per
+// ISO week, maintained straight from BookingSlotEntity events so that they are
+// there in every participant slot projection mode.
+//
+// View rows are keyed by the source entity, so there is one row per slot: its
+// month (from the slot ID) and the latest status of every participant in it.
+// A month has at most 744 slots whatever the size of the fleet, so a fleet
+// query reads the slots of the requested months in one go and counts the
+// requested participants' hours with `monthsOf`. Rows outlive the close-out of
+// their slot, so past months keep their counts.
+@Component(id = "view-participant-utilization")
+public class ParticipantUtilizationView extends View {
+
+    @Consume.FromEventSourcedEntity(BookingSlotEntity.class)
+    public static class ParticipantUtilizationUpdater extends TableUpdater<SlotUtilizationRow> {
+
+        public Effect<SlotUtilizationRow> onEvent(BookingEvent event) {
+            // old events of slots whose ID isn't an hour have no month to count in
+            if (event.slotId() == null) {
+                return effects().ignore();
+            }
+            // the counts keep the history of closed-out slots
+            if (event instanceof BookingEvent.SlotSealed || event instanceof BookingEvent.SlotPurged) {
+                return effects().ignore();
+            }
+
+            SlotUtilizationRow row = rowState() == null
+                    ? SlotUtilizationRow.empty(event.slotId())
+                    : rowState();
+
+            SlotUtilizationRow updated = switch (event) {
+                case BookingEvent.ParticipantMarkedAvailable e ->
+                        row.with(e.participantId(), e.participantType(), "available");
+                case BookingEvent.ParticipantUnmarkedAvailable e -> row.without(e.participantId());
+                case BookingEvent.ParticipantBooked e -> row.with(e.participantId(), e.participantType(), "booked");
+                case BookingEvent.ParticipantCanceled e ->
+                        row.with(e.participantId(), e.participantType(), "canceled");
+                case BookingEvent.SlotBooked e -> row.withAll(e.participants(), "booked");
+                case BookingEvent.BookingCanceled e -> row.withAll(e.participants(), "canceled");
+                case BookingEvent.SlotSealed e -> row;
+                case BookingEvent.SlotPurged e -> row;
+            };
+
+            return effects().updateRow(updated);
+        }
+    }
+
+    public record HourEntry(String participantId, String participantType, String status) {
+    }
+
+    public record SlotUtilizationRow(String slotId, int slotHour, String month, List<HourEntry> participants) {
+
+        static SlotUtilizationRow empty(SlotId slotId) {
+            return new SlotUtilizationRow(slotId.toString(), slotId.epochHour(), slotId.month(), List.of());
+        }
+
+        // Replaces the participant's entry, if any, with the given status
+        SlotUtilizationRow with(String participantId, ParticipantType type, String status) {
+            List<HourEntry> updated = new ArrayList<>(participants.size() + 1);
+            for (HourEntry p : participants) {
+                if (!p.participantId().equals(participantId)) updated.add(p);
+            }
+            updated.add(new HourEntry(participantId, type.name(), status));
+            return new SlotUtilizationRow(slotId, slotHour, month, updated);
+        }
+
+        SlotUtilizationRow withAll(List<Participant> booking, String status) {
+            SlotUtilizationRow updated = this;
+            for (Participant p : booking) {
+                updated = updated.with(p.id(), p.participantType(), status);
+            }
+            return updated;
+        }
+
+        SlotUtilizationRow without(String participantId) {
+            List<HourEntry> updated = new ArrayList<>(participants.size());
+            for (HourEntry p : participants) {
+                if (!p.participantId().equals(participantId)) updated.add(p);
+            }
+            return new SlotUtilizationRow(slotId, slotHour, month, updated);
+        }
+    }
+
+    // One participant's counts for one month
+    public record UtilizationRow(
+            String participantId,
+            String participantType,
+            String month,
+            Utilization total,
+            List<Utilization> days,
+            List<Utilization> weeks) {
+
+        static UtilizationRow of(ParticipantCalendar calendar) {
+            List<Utilization> days = calendar.utilizationByDay();
+            Utilization total = days.stream()
+                    .reduce(Utilization.empty(calendar.month()), Utilization::plus);
+            return new UtilizationRow(
+                    calendar.participantId(),
+                    calendar.participantType().name(),
+                    calendar.month(),
+                    total,
+                    days,
+                    calendar.utilizationByWeek());
+        }
+    }
+
+    // The counts of the given participants per month, from their entries in
+    // the given slots. The hours are laid out in a participant calendar, which
+    // does the counting; the booking IDs aren't needed for it.
+    public static List<UtilizationRow> monthsOf(List<String> participantIds, List<SlotUtilizationRow> slots) {
+        Set<String> wanted = new HashSet<>(participantIds);
+        Map<String, ParticipantCalendar> calendars = new HashMap<>();
+        for (SlotUtilizationRow slot : slots) {
+            int hour = SlotId.of(slot.slotHour()).hourOfMonth();
+            for (HourEntry entry : slot.participants()) {
+                if (!wanted.contains(entry.participantId())) continue;
+                ParticipantType type = ParticipantType.valueOf(entry.participantType());
+                String calendarId = ParticipantCalendarEntity.calendarId(entry.participantId(), slot.month());
+                ParticipantCalendar calendar = calendars.getOrDefault(
+                        calendarId, ParticipantCalendar.empty(entry.participantId(), slot.month()));
+                calendars.put(calendarId, switch (entry.status()) {
+                    case "available" -> calendar.markAvailable(hour, type);
+                    case "booked" -> calendar.book(hour, type, "");
+                    default -> calendar.cancelHour(hour, type);
+                });
+            }
+        }
+        return calendars.values().stream().map(UtilizationRow::of).toList();
+    }
+
+    // `fromMonth` and `toMonth` are inclusive `yyyy-MM` bounds, which sort
+    // chronologically as strings
+    public record MonthRange(String fromMonth, String toMonth) {
+    }
+
+    @Query("""
+            SELECT * FROM slot_utilization
+            WHERE month >= :fromMonth AND month <= :toMonth
+            """)
+    public QueryStreamEffect<SlotUtilizationRow> streamSlots(MonthRange input) {
+        return queryStreamResult();
+    }
+}
@@ -0,0 +1,42 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.annotations.Component;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import java.time.Duration;
+import java.time.Instant;
+
+// When the next flight conditions precompute run is due, keyed by its timer
+// name. Timers can't be looked up, so FlightConditionsPrecomputeAction records
+// here each time it schedules itself, and Bootstrap only starts the chain on
+// startup when no run is pending.
+@Component(id = "flight-conditions-precompute-schedule")
+public class PrecomputeScheduleEntity extends KeyValueEntity<PrecomputeScheduleEntity.Schedule> {
+
+    @Override
+    public Schedule emptyState() {
+        return Schedule.NONE;
+    }
+
+    public Effect<Done> scheduled(Instant nextRunAt) {
+        if (nextRunAt == null) {
+            return effects().error("nextRunAt is required");
+        }
+        return effects().updateState(new Schedule(nextRunAt)).thenReply(Done.done());
+    }
+
+    public ReadOnlyEffect<Schedule> getSchedule() {
+        return effects().reply(currentState());
+    }
+
+    public record Schedule(Instant nextRunAt) {
+        static final Schedule NONE = new Schedule(null);
+
+        // A run is pending if it is due in the future, or was due within the
+        // last `overdue`, the time a run may take to start and reschedule
+        // itself. A run overdue by longer than that has been lost.
+        public boolean isPending(Instant now, Duration overdue) {
+            return nextRunAt != null && nextRunAt.plus(overdue).isAfter(now);
+        }
+    }
+}
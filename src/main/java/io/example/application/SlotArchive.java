@@ -0,0 +1,65 @@
+package io.example.application;
+
+import akka.javasdk.JsonSupport;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.typesafe.config.Config;
+import io.example.domain.Timeslot;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Append-only archive of closed-out slots, one JSON document per line. A slot
+// is archived before its entity is purged, so a close-out interrupted between
+// the two archives the same slot again on the next run: readers should treat
+// the archive as at-least-once and keep the last line per slot ID.
+public class SlotArchive {
+
+    private final Path file;
+    // Appends block on file IO, so they get a thread of their own rather than
+    // one from the shared pools; one is enough as appends are serialized anyway
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "slot-archive-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SlotArchive(Path file) {
+        this.file = file;
+    }
+
+    // Reads `flight.close-out.archive-file` from application.conf
+    public static SlotArchive fromConfig(Config config) {
+        return new SlotArchive(Path.of(config.getString("archive-file")));
+    }
+
+    // Appends the slot's final state on the archive's writer thread
+    public CompletionStage<Void> appendAsync(String slotId, Timeslot slot) {
+        return CompletableFuture.runAsync(() -> append(slotId, slot), writer);
+    }
+
+    // Appends the slot's final state. Synchronized so lines written by
+    // concurrent close-outs never interleave.
+    public synchronized void append(String slotId, Timeslot slot) {
+        try {
+            String line = JsonSupport.getObjectMapper()
+                    .writeValueAsString(new ArchivedSlot(slotId, slot, Instant.now())) + "\n";
+            Files.writeString(file, line, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize slot " + slotId, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not archive slot " + slotId + " to " + file, e);
+        }
+    }
+
+    public record ArchivedSlot(String slotId, Timeslot slot, Instant archivedAt) {
+    }
+}
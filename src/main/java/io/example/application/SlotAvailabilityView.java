@@ -0,0 +1,163 @@
+package io.example.application;
+
+import akka.javasdk.annotations.Component;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.Query;
+import akka.javasdk.view.TableUpdater;
+import akka.javasdk.view.View;
+import io.example.domain.BookingEvent;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.SlotId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// A slot-centric view of who is currently available in each slot, maintained
+// directly from BookingSlotEntity events. It answers "which slots can this
+// student, instructor and aircraft all fly in" in a single query instead of
+// intersecting three participant queries client-side.
+//
+// Each role list also carries the ANY marker while anyone of that role is
+// available, so a query can ask for a specific participant or for any
+// participant of a role with the same `= ANY(...)` condition.
+//
+// Rows are ordered and range-filtered by `slotHour`, the slot's epoch hour
+// (see SlotId), rather than by the slot ID string.
+@Component(id = "view-slot-availability")
+public class SlotAvailabilityView extends View {
+
+    public static final String ANY = "*";
+
+    @Consume.FromEventSourcedEntity(BookingSlotEntity.class)
+    public static class SlotAvailabilityUpdater extends TableUpdater<SlotAvailabilityRow> {
+
+        public Effect<SlotAvailabilityRow> onEvent(BookingEvent event) {
+            // old events of slots whose ID isn't an hour have no place in the view
+            if (event.slotId() == null) {
+                return effects().ignore();
+            }
+            // a sealed slot can no longer be booked, so it leaves this view
+            if (event instanceof BookingEvent.SlotSealed || event instanceof BookingEvent.SlotPurged) {
+                return rowState() == null ? effects().ignore() : effects().deleteRow();
+            }
+
+            SlotAvailabilityRow row = rowState() == null
+                    ? SlotAvailabilityRow.empty(event.slotId())
+                    : rowState();
+
+            SlotAvailabilityRow updated = switch (event) {
+                case BookingEvent.ParticipantMarkedAvailable e -> row.with(e.participantType(), e.participantId());
+                case BookingEvent.ParticipantUnmarkedAvailable e -> row.without(e.participantType(), e.participantId());
+                case BookingEvent.ParticipantBooked e -> row.without(e.participantType(), e.participantId());
+                case BookingEvent.SlotBooked e -> row
+                        .without(ParticipantType.STUDENT, e.studentId())
+                        .without(ParticipantType.AIRCRAFT, e.aircraftId())
+                        .without(ParticipantType.INSTRUCTOR, e.instructorId());
+                // canceled participants aren't made available again
+                case BookingEvent.ParticipantCanceled e -> row;
+                case BookingEvent.BookingCanceled e -> row;
+                case BookingEvent.SlotSealed e -> row;
+                case BookingEvent.SlotPurged e -> row;
+            };
+
+            if (updated == row) return effects().ignore();
+            return updated.isEmpty() ? effects().deleteRow() : effects().updateRow(updated);
+        }
+    }
+
+    public record SlotAvailabilityRow(
+            String slotId, int slotHour, List<String> students, List<String> instructors, List<String> aircraft) {
+
+        static SlotAvailabilityRow empty(SlotId slotId) {
+            return new SlotAvailabilityRow(slotId.toString(), slotId.epochHour(), List.of(), List.of(), List.of());
+        }
+
+        boolean isEmpty() {
+            return students.isEmpty() && instructors.isEmpty() && aircraft.isEmpty();
+        }
+
+        SlotAvailabilityRow with(ParticipantType type, String participantId) {
+            List<String> ids = idsOf(type);
+            if (ids.contains(participantId)) return this;
+            List<String> updated = new ArrayList<>(ids);
+            if (updated.isEmpty()) updated.add(ANY);
+            updated.add(participantId);
+            return replace(type, updated);
+        }
+
+        SlotAvailabilityRow without(ParticipantType type, String participantId) {
+            List<String> ids = idsOf(type);
+            if (!ids.contains(participantId)) return this;
+            List<String> updated = new ArrayList<>(ids);
+            updated.remove(participantId);
+            if (updated.size() == 1) updated.clear(); // only the ANY marker left
+            return replace(type, updated);
+        }
+
+        // The IDs of the participants of the given role, without the ANY marker
+        public Set<String> participantsOf(ParticipantType type) {
+            Set<String> ids = new HashSet<>(idsOf(type));
+            ids.remove(ANY);
+            return ids;
+        }
+
+        private List<String> idsOf(ParticipantType type) {
+            return switch (type) {
+                case STUDENT -> students;
+                case INSTRUCTOR -> instructors;
+                case AIRCRAFT -> aircraft;
+            };
+        }
+
+        private SlotAvailabilityRow replace(ParticipantType type, List<String> ids) {
+            return switch (type) {
+                case STUDENT -> new SlotAvailabilityRow(slotId, slotHour, ids, instructors, aircraft);
+                case INSTRUCTOR -> new SlotAvailabilityRow(slotId, slotHour, students, ids, aircraft);
+                case AIRCRAFT -> new SlotAvailabilityRow(slotId, slotHour, students, instructors, ids);
+            };
+        }
+    }
+
+    // Pass ANY for a role to match slots where anyone of that role is available.
+    // `fromHour` and `toHour` bound the slot range (inclusive epoch hours).
+    public record BookableSlotsInput(
+            String studentId, String instructorId, String aircraftId, int fromHour, int toHour, int limit) {
+    }
+
+    public record BookableSlots(List<SlotAvailabilityRow> slots) {
+    }
+
+    @Query("""
+            SELECT * AS slots FROM slot_availability
+            WHERE :studentId = ANY(students)
+              AND :instructorId = ANY(instructors)
+              AND :aircraftId = ANY(aircraft)
+              AND slotHour >= :fromHour AND slotHour <= :toHour
+            ORDER BY slotHour
+            LIMIT :limit
+            """)
+    public QueryEffect<BookableSlots> findBookableSlots(BookableSlotsInput input) {
+        return queryResult();
+    }
+
+    // `any` is always ANY
+    public record OpenSlotsInput(String any, int fromHour, int toHour) {
+        public static OpenSlotsInput between(SlotId from, SlotId to) {
+            return new OpenSlotsInput(ANY, from.epochHour(), to.epochHour());
+        }
+    }
+
+    // Every slot in the range in which someone of each role is available
+    @Query("""
+            SELECT * FROM slot_availability
+            WHERE :any = ANY(students)
+              AND :any = ANY(instructors)
+              AND :any = ANY(aircraft)
+              AND slotHour >= :fromHour AND slotHour <= :toHour
+            ORDER BY slotHour
+            """)
+    public QueryStreamEffect<SlotAvailabilityRow> streamOpenSlots(OpenSlotsInput input) {
+        return queryStreamResult();
+    }
+}
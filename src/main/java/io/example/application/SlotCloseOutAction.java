@@ -0,0 +1,107 @@
+package io.example.application;
+
+import akka.Done;
+import akka.NotUsed;
+import akka.javasdk.DeferredCall;
+import akka.javasdk.annotations.Component;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.timedaction.TimedAction;
+import akka.stream.Materializer;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import com.typesafe.config.Config;
+import io.example.domain.SlotId;
+import java.time.Duration;
+import java.util.concurrent.CompletionStage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Closes out slots whose hour has passed, so the live entities and views only
+// hold the slots that can still change. Each slot is sealed (it stops taking
+// commands and leaves SlotAvailabilityView), its final state is appended to the
+// SlotArchive, and then it is purged: the booking slot entity, its participant
+// slots and its SlotParticipantsView row are deleted, along with its stored
+// flight conditions verdict. Participant calendars keep the slot as history.
+//
+// Every step is idempotent, so a slot that fails half-way is simply picked up
+// again by the next run. Each run schedules the next one, sooner if it found a
+// full batch; the first is scheduled by Bootstrap.
+@Component(id = "slot-close-out")
+public class SlotCloseOutAction extends TimedAction {
+
+    public static final String TIMER_NAME = "slot-close-out";
+
+    private static final Logger logger = LoggerFactory.getLogger(SlotCloseOutAction.class);
+
+    private final ComponentClient componentClient;
+    private final SlotArchive archive;
+    private final Materializer materializer;
+    private final Duration interval;
+    private final int graceHours;
+    private final int batchSize;
+    private final int parallelism;
+
+    public SlotCloseOutAction(
+            ComponentClient componentClient, SlotArchive archive, Materializer materializer, Config config) {
+        this.componentClient = componentClient;
+        this.archive = archive;
+        this.materializer = materializer;
+        Config closeOut = config.getConfig("flight.close-out");
+        this.interval = closeOut.getDuration("interval");
+        this.graceHours = (int) closeOut.getDuration("grace").toHours();
+        this.batchSize = closeOut.getInt("batch-size");
+        this.parallelism = closeOut.getInt("parallelism");
+    }
+
+    // Closes out up to `batch-size` of the oldest slots that ended at least
+    // `grace` ago, `parallelism` at a time. A slot that fails is logged and
+    // left to the next run.
+    public Effect closeOut() {
+        SlotId before = SlotId.now().plusHours(-graceHours);
+        CompletionStage<Done> run = componentClient
+                .forView()
+                .method(SlotParticipantsView::findPastSlots)
+                .invokeAsync(new SlotParticipantsView.PastSlotsInput(before.epochHour(), batchSize))
+                .thenCompose(past -> {
+                    logger.info("Closing out {} slots before {}", past.slots().size(), before);
+                    return Source.from(past.slots())
+                            .mapAsyncUnordered(parallelism, row -> closeOutSlot(row.slotId())
+                                    .handle((done, ex) -> {
+                                        if (ex != null) logger.warn("Could not close out slot {}", row.slotId(), ex);
+                                        return ex == null;
+                                    }))
+                            .runWith(Sink.seq(), materializer)
+                            .thenApply(results -> {
+                                // a full batch means there is likely more backlog, so go again right away
+                                boolean more = past.slots().size() >= batchSize && results.contains(true);
+                                timers().createSingleTimer(
+                                        TIMER_NAME, more ? Duration.ZERO : interval, deferredRun(componentClient));
+                                return Done.done();
+                            });
+                });
+        return effects().asyncDone(run);
+    }
+
+    private CompletionStage<Done> closeOutSlot(String slotId) {
+        return componentClient
+                .forEventSourcedEntity(slotId)
+                .method(BookingSlotEntity::seal)
+                .invokeAsync()
+                .thenCompose(slot -> archive.appendAsync(slotId, slot))
+                .thenCompose(__ -> componentClient
+                        .forEventSourcedEntity(slotId)
+                        .method(BookingSlotEntity::purge)
+                        .invokeAsync())
+                .thenCompose(__ -> componentClient
+                        .forKeyValueEntity(slotId)
+                        .method(FlightConditionsEntity::delete)
+                        .invokeAsync());
+    }
+
+    static DeferredCall<NotUsed, Done> deferredRun(ComponentClient componentClient) {
+        return componentClient
+                .forTimedAction()
+                .method(SlotCloseOutAction::closeOut)
+                .deferred();
+    }
+}
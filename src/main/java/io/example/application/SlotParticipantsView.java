@@ -0,0 +1,241 @@
+package io.example.application;
+
+import akka.javasdk.annotations.Component;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.Query;
+import akka.javasdk.view.TableUpdater;
+import akka.javasdk.view.View;
+import io.example.application.ParticipantSlotsView.SlotRow;
+import io.example.domain.BookingEvent;
+import io.example.domain.Participant;
+import io.example.domain.SlotId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// The participant slot statuses projected straight from BookingSlotEntity
+// events, without the SlotToParticipantConsumer -> ParticipantSlotEntity hop.
+// Used instead of ParticipantSlotsView unless the participant slot projection
+// mode is `entity`.
+//
+// View rows are keyed by the source entity, so there is one row per slot
+// holding the latest status of every participant in it (the same thing the
+// {slotId}-{participantId} participant slot entities hold). Each row also
+// lists `participantId|status` keys, so "slots where X is booked" is a single
+// indexed `= ANY(statusKeys)` lookup. Rows are ordered and range-filtered by
+// `slotHour`, the slot's epoch hour (see SlotId).
+//
+// Rows also back the live change streams. `participantIds` lists everyone who
+// has ever had a status in the slot, so a participant's stream still sees the
+// update that removes them, and `offset` is the time of the row's latest event
+// in epoch milliseconds, bumped so it always grows within the row. A slot's
+// stream resumes from it; rows of different slots are updated in no common
+// order, so a participant's stream can't.
+// Rows stay in place when their last participant leaves, until the slot is
+// purged, so that change is streamed too.
+@Component(id = "view-slot-participants")
+public class SlotParticipantsView extends View {
+
+    @Consume.FromEventSourcedEntity(BookingSlotEntity.class)
+    public static class SlotParticipantsUpdater extends TableUpdater<SlotParticipantsRow> {
+
+        public Effect<SlotParticipantsRow> onEvent(BookingEvent event) {
+            FlightMetrics.recordDirectViewLag(updateContext().metadata().asCloudEvent().time());
+
+            // old events of slots whose ID isn't an hour have no place in the view
+            if (event.slotId() == null) {
+                return effects().ignore();
+            }
+            if (event instanceof BookingEvent.SlotPurged) {
+                return rowState() == null ? effects().ignore() : effects().deleteRow();
+            }
+
+            SlotParticipantsRow row = rowState() == null
+                    ? SlotParticipantsRow.empty(event.slotId())
+                    : rowState();
+
+            SlotParticipantsRow updated = switch (event) {
+                case BookingEvent.ParticipantMarkedAvailable e ->
+                        row.with(new SlotRow(e.slotId().toString(), e.participantId(), e.participantType().name(), "", "available"));
+                case BookingEvent.ParticipantUnmarkedAvailable e -> row.without(e.participantId());
+                case BookingEvent.ParticipantBooked e ->
+                        row.with(new SlotRow(e.slotId().toString(), e.participantId(), e.participantType().name(), e.bookingId(), "booked"));
+                case BookingEvent.ParticipantCanceled e ->
+                        row.with(new SlotRow(e.slotId().toString(), e.participantId(), e.participantType().name(), e.bookingId(), "canceled"));
+                case BookingEvent.SlotBooked e -> row.withAll(e.participants(), e.bookingId(), "booked");
+                case BookingEvent.BookingCanceled e -> row.withAll(e.participants(), e.bookingId(), "canceled");
+                // sealed slots stay listed (as history) until they are purged
+                case BookingEvent.SlotSealed e -> row.seal();
+                case BookingEvent.SlotPurged e -> row;
+            };
+
+            long eventTime = updateContext().metadata().asCloudEvent().time()
+                    .map(time -> time.toInstant().toEpochMilli())
+                    .orElseGet(System::currentTimeMillis);
+            return effects().updateRow(updated.at(eventTime));
+        }
+    }
+
+    public record SlotParticipantsRow(
+            String slotId,
+            int slotHour,
+            List<SlotRow> participants,
+            List<String> statusKeys,
+            List<String> participantIds,
+            boolean sealed,
+            long offset) {
+
+        static SlotParticipantsRow empty(SlotId slotId) {
+            return new SlotParticipantsRow(
+                    slotId.toString(), slotId.epochHour(), List.of(), List.of(), List.of(), false, 0);
+        }
+
+        static String statusKey(String participantId, String status) {
+            return participantId + "|" + status;
+        }
+
+        // Replaces the participant's entry, if any, with the given one
+        SlotParticipantsRow with(SlotRow entry) {
+            List<SlotRow> updated = new ArrayList<>(participants.size() + 1);
+            for (SlotRow p : participants) {
+                if (!p.participantId().equals(entry.participantId())) updated.add(p);
+            }
+            updated.add(entry);
+            return of(updated);
+        }
+
+        SlotParticipantsRow withAll(List<Participant> booking, String bookingId, String status) {
+            SlotParticipantsRow updated = this;
+            for (Participant p : booking) {
+                updated = updated.with(new SlotRow(slotId, p.id(), p.participantType().name(), bookingId, status));
+            }
+            return updated;
+        }
+
+        SlotParticipantsRow without(String participantId) {
+            List<SlotRow> updated = new ArrayList<>(participants.size());
+            for (SlotRow p : participants) {
+                if (!p.participantId().equals(participantId)) updated.add(p);
+            }
+            return of(updated);
+        }
+
+        // The participant's entries with the given status, as participant slot rows
+        public List<SlotRow> rowsFor(String participantId, String status) {
+            return participants.stream()
+                    .filter(p -> p.participantId().equals(participantId) && p.status().equals(status))
+                    .toList();
+        }
+
+        // The participant's current entry; empty once they have left the slot
+        public Optional<SlotRow> entryOf(String participantId) {
+            return participants.stream().filter(p -> p.participantId().equals(participantId)).findFirst();
+        }
+
+        SlotParticipantsRow seal() {
+            return new SlotParticipantsRow(slotId, slotHour, participants, statusKeys, participantIds, true, offset);
+        }
+
+        // Stamps the row with the time of the event that produced it
+        SlotParticipantsRow at(long eventTime) {
+            return new SlotParticipantsRow(
+                    slotId, slotHour, participants, statusKeys, participantIds, sealed, Math.max(eventTime, offset + 1));
+        }
+
+        private SlotParticipantsRow of(List<SlotRow> updated) {
+            List<String> keys = updated.stream().map(p -> statusKey(p.participantId(), p.status())).toList();
+            List<String> ids = new ArrayList<>(participantIds);
+            for (SlotRow p : updated) {
+                if (!ids.contains(p.participantId())) ids.add(p.participantId());
+            }
+            return new SlotParticipantsRow(slotId, slotHour, updated, keys, ids, sealed, offset);
+        }
+    }
+
+    public record SlotPageInput(String statusKey, int fromHour, int toHour, String pageToken, int pageSize) {
+    }
+
+    public record SlotRangeInput(String statusKey, int fromHour, int toHour) {
+    }
+
+    public record ParticipantChangesInput(String participantId, int fromHour) {
+    }
+
+    public record PastSlotsInput(int beforeHour, int limit) {
+    }
+
+    public record PastSlots(List<SlotParticipantsRow> slots) {
+    }
+
+    public record SlotParticipantsPage(List<SlotParticipantsRow> slots, String nextPageToken, boolean hasMore) {
+    }
+
+    public static SlotPageInput pageInput(ParticipantSlotsView.SlotPageInput input) {
+        return new SlotPageInput(
+                SlotParticipantsRow.statusKey(input.participantId(), input.status()),
+                hourOf(input.from()), hourOf(input.to()), input.pageToken(), input.pageSize());
+    }
+
+    public static SlotRangeInput rangeInput(ParticipantSlotsView.SlotRangeInput input) {
+        return new SlotRangeInput(
+                SlotParticipantsRow.statusKey(input.participantId(), input.status()),
+                hourOf(input.from()), hourOf(input.to()));
+    }
+
+    private static int hourOf(String slotId) {
+        return SlotId.parse(slotId).epochHour();
+    }
+
+    @Query("""
+            SELECT * AS slots, next_page_token() AS nextPageToken, has_more() AS hasMore
+            FROM slot_participants
+            WHERE :statusKey = ANY(statusKeys)
+              AND slotHour >= :fromHour AND slotHour <= :toHour
+            ORDER BY slotHour
+            OFFSET page_token_offset(:pageToken)
+            LIMIT :pageSize
+            """)
+    public QueryEffect<SlotParticipantsPage> getSlotPage(SlotPageInput input) {
+        return queryResult();
+    }
+
+    @Query("""
+            SELECT * FROM slot_participants
+            WHERE :statusKey = ANY(statusKeys)
+              AND slotHour >= :fromHour AND slotHour <= :toHour
+            ORDER BY slotHour
+            """)
+    public QueryStreamEffect<SlotParticipantsRow> streamSlots(SlotRangeInput input) {
+        return queryStreamResult();
+    }
+
+    // The oldest slots that started before the given hour, for the close-out
+    // (see SlotCloseOutAction). Purged slots drop out of the view, so repeated
+    // calls walk forward through the backlog.
+    @Query("""
+            SELECT * AS slots FROM slot_participants
+            WHERE slotHour < :beforeHour
+            ORDER BY slotHour
+            LIMIT :limit
+            """)
+    public QueryEffect<PastSlots> findPastSlots(PastSlotsInput input) {
+        return queryResult();
+    }
+
+    // The slot's row followed by every later update to it
+    @Query(value = "SELECT * FROM slot_participants WHERE slotId = :slotId", streamUpdates = true)
+    public QueryStreamEffect<SlotParticipantsRow> streamSlotChanges(String slotId) {
+        return queryStreamResult();
+    }
+
+    // The rows of every slot from `fromHour` on that the participant has been
+    // in, followed by every later update to them
+    @Query(value = """
+            SELECT * FROM slot_participants
+            WHERE :participantId = ANY(participantIds)
+              AND slotHour >= :fromHour
+            """, streamUpdates = true)
+    public QueryStreamEffect<SlotParticipantsRow> streamParticipantChanges(ParticipantChangesInput input) {
+        return queryStreamResult();
+    }
+}
@@ -1,74 +1,181 @@
 package io.example.application;
 
+import akka.Done;
+import akka.japi.function.Function2;
 import akka.javasdk.annotations.Component;
 import akka.javasdk.annotations.Consume;
 import akka.javasdk.client.ComponentClient;
+import akka.javasdk.client.EventSourcedEntityClient;
 import akka.javasdk.consumer.Consumer;
+import akka.javasdk.eventsourcedentity.EventSourcedEntity;
 import io.example.domain.BookingEvent;
+import io.example.domain.Participant;
+import io.example.domain.SlotId;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 // This class is responsible for consuming events from the booking
 // slot entity and turning those into command calls on the
-// participant slot entity
+// participant calendar entity or the participant slot entity
 @Component(id = "booking-slot-consumer")
 @Consume.FromEventSourcedEntity(BookingSlotEntity.class)
 public class SlotToParticipantConsumer extends Consumer {
 
     private final ComponentClient client;
+    private final ParticipantSlotsProjection projection;
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
-    public SlotToParticipantConsumer(ComponentClient client) {
+    public SlotToParticipantConsumer(ComponentClient client, ParticipantSlotsProjection projection) {
         this.client = client;
+        // DIRECT: the participant slot statuses are only projected straight
+        // into SlotParticipantsView, nothing is written here.
+        // CALENDAR: one participant calendar entity per participant and month
+        // is updated instead of a participant slot entity per slot.
+        // ENTITY: the participant slot entities feeding ParticipantSlotsView.
+        // Offsets are committed in every mode, so switching to a mode that
+        // writes something else needs this consumer and the views fed by those
+        // entities reset (see application.conf).
+        this.projection = projection;
     }
 
+    // Calls to the participant slot and calendar entities are issued
+    // asynchronously and the returned effect completes when they do, so no
+    // thread is held for the duration of the round-trip and events for
+    // different booking slots are propagated concurrently. A booking or
+    // cancellation event updates its three participants with overlapping calls.
     public Effect onEvent(BookingEvent event) {
-        String participantSlotId = participantSlotId(event);
+        FlightMetrics.recordConsumerLag(messageContext().metadata().asCloudEvent().time());
+        // old events of slots whose ID isn't a `yyyy-MM-dd-HH` hour have no
+        // calendar month or participant slot, so they are skipped
+        if (event.slotId() == null) {
+            logger.debug("Skipping {} of a slot without an hour slot ID", event.getClass().getSimpleName());
+            return effects().done();
+        }
+        return switch (projection) {
+            case DIRECT -> effects().done();
+            case CALENDAR -> effects().asyncDone(updateCalendars(event));
+            case ENTITY -> {
+                // the participant slot events carry the booking slot event's time, so
+                // the view can record lag end to end
+                Instant sourceTime = messageContext().metadata().asCloudEvent().time()
+                        .map(ZonedDateTime::toInstant)
+                        .orElse(null);
+                yield effects().asyncDone(propagate(event, sourceTime));
+            }
+        };
+    }
+
+    private CompletionStage<Done> updateCalendars(BookingEvent event) {
+        return switch (event) {
+            case BookingEvent.ParticipantMarkedAvailable e ->
+                    calendar(e.slotId(), e.participantId(), ParticipantCalendarEntity::markAvailable,
+                            new ParticipantCalendarEntity.Commands.MarkAvailable(e.slotId(), e.participantType()));
+            case BookingEvent.ParticipantUnmarkedAvailable e ->
+                    calendar(e.slotId(), e.participantId(), ParticipantCalendarEntity::unmarkAvailable,
+                            new ParticipantCalendarEntity.Commands.UnmarkAvailable(e.slotId(), e.participantType()));
+            case BookingEvent.ParticipantBooked e ->
+                    calendar(e.slotId(), e.participantId(), ParticipantCalendarEntity::book,
+                            new ParticipantCalendarEntity.Commands.Book(e.slotId(), e.participantType(), e.bookingId()));
+            case BookingEvent.ParticipantCanceled e ->
+                    calendar(e.slotId(), e.participantId(), ParticipantCalendarEntity::cancel,
+                            new ParticipantCalendarEntity.Commands.Cancel(e.slotId(), e.participantType(), e.bookingId()));
+            case BookingEvent.SlotBooked e -> allDone(e.participants().stream()
+                    .map(p -> calendar(e.slotId(), p.id(), ParticipantCalendarEntity::book,
+                            new ParticipantCalendarEntity.Commands.Book(e.slotId(), p.participantType(), e.bookingId())))
+                    .toList());
+            case BookingEvent.BookingCanceled e -> allDone(e.participants().stream()
+                    .map(p -> calendar(e.slotId(), p.id(), ParticipantCalendarEntity::cancel,
+                            new ParticipantCalendarEntity.Commands.Cancel(e.slotId(), p.participantType(), e.bookingId())))
+                    .toList());
+            // calendars keep the history of closed-out slots
+            case BookingEvent.SlotSealed e -> CompletableFuture.completedFuture(Done.done());
+            case BookingEvent.SlotPurged e -> CompletableFuture.completedFuture(Done.done());
+        };
+    }
+
+    private <C> CompletionStage<Done> calendar(
+            SlotId slotId, String participantId,
+            Function2<ParticipantCalendarEntity, C, EventSourcedEntity.Effect<Done>> method, C command) {
+        return client
+                .forEventSourcedEntity(ParticipantCalendarEntity.calendarId(participantId, slotId.month()))
+                .method(method)
+                .invokeAsync(command);
+    }
 
-        switch (event) {
+    private CompletionStage<Done> propagate(BookingEvent event, Instant sourceTime) {
+        return switch (event) {
             case BookingEvent.ParticipantMarkedAvailable e -> {
-                logger.info("Propagating marked-available for {} in slot {}", e.participantId(), e.slotId());
-                client.forEventSourcedEntity(participantSlotId)
+                logger.debug("Propagating marked-available for {} in slot {}", e.participantId(), e.slotId());
+                yield participantSlot(e.slotId(), e.participantId())
                         .method(ParticipantSlotEntity::markAvailable)
-                        .invoke(new ParticipantSlotEntity.Commands.MarkAvailable(
-                                e.slotId(), e.participantId(), e.participantType()));
+                        .invokeAsync(new ParticipantSlotEntity.Commands.MarkAvailable(
+                                e.slotId().toString(), e.participantId(), e.participantType(), sourceTime));
             }
             case BookingEvent.ParticipantUnmarkedAvailable e -> {
-                logger.info("Propagating unmarked-available for {} in slot {}", e.participantId(), e.slotId());
-                client.forEventSourcedEntity(participantSlotId)
+                logger.debug("Propagating unmarked-available for {} in slot {}", e.participantId(), e.slotId());
+                yield participantSlot(e.slotId(), e.participantId())
                         .method(ParticipantSlotEntity::unmarkAvailable)
-                        .invoke(new ParticipantSlotEntity.Commands.UnmarkAvailable(
-                                e.slotId(), e.participantId(), e.participantType()));
+                        .invokeAsync(new ParticipantSlotEntity.Commands.UnmarkAvailable(
+                                e.slotId().toString(), e.participantId(), e.participantType(), sourceTime));
             }
-            case BookingEvent.ParticipantBooked e -> {
-                logger.info("Propagating booked status for {} in slot {}, bookingId {}", e.participantId(), e.slotId(), e.bookingId());
-                client.forEventSourcedEntity(participantSlotId)
-                        .method(ParticipantSlotEntity::book)
-                        .invoke(new ParticipantSlotEntity.Commands.Book(
-                                e.slotId(), e.participantId(), e.participantType(), e.bookingId()));
+            case BookingEvent.ParticipantBooked e ->
+                    book(e.slotId(), new Participant(e.participantId(), e.participantType()), e.bookingId(), sourceTime);
+            case BookingEvent.ParticipantCanceled e ->
+                    cancel(e.slotId(), new Participant(e.participantId(), e.participantType()), e.bookingId(), sourceTime);
+            case BookingEvent.SlotBooked e -> {
+                logger.debug("Propagating booking {} in slot {}", e.bookingId(), e.slotId());
+                yield allDone(e.participants().stream().map(p -> book(e.slotId(), p, e.bookingId(), sourceTime)).toList());
             }
-            case BookingEvent.ParticipantCanceled e -> {
-                logger.info("Propagating canceled status for {} in slot {}, bookingId {}", e.participantId(), e.slotId(), e.bookingId());
-                client.forEventSourcedEntity(participantSlotId)
-                        .method(ParticipantSlotEntity::cancel)
-                        .invoke(new ParticipantSlotEntity.Commands.Cancel(
-                                e.slotId(), e.participantId(), e.participantType(), e.bookingId()));
+            case BookingEvent.BookingCanceled e -> {
+                logger.debug("Propagating cancellation of booking {} in slot {}", e.bookingId(), e.slotId());
+                yield allDone(e.participants().stream().map(p -> cancel(e.slotId(), p, e.bookingId(), sourceTime)).toList());
             }
-        }
+            case BookingEvent.SlotSealed e -> CompletableFuture.completedFuture(Done.done());
+            case BookingEvent.SlotPurged e -> {
+                logger.debug("Purging participant slots of closed-out slot {}", e.slotId());
+                yield allDone(e.participantIds().stream().map(id -> purge(e.slotId(), id)).toList());
+            }
+        };
+    }
 
-        return effects().done();
+    private CompletionStage<Done> book(SlotId slotId, Participant participant, String bookingId, Instant sourceTime) {
+        logger.debug("Propagating booked status for {} in slot {}, bookingId {}", participant.id(), slotId, bookingId);
+        return participantSlot(slotId, participant.id())
+                .method(ParticipantSlotEntity::book)
+                .invokeAsync(new ParticipantSlotEntity.Commands.Book(
+                        slotId.toString(), participant.id(), participant.participantType(), bookingId, sourceTime));
+    }
+
+    private CompletionStage<Done> cancel(SlotId slotId, Participant participant, String bookingId, Instant sourceTime) {
+        logger.debug("Propagating canceled status for {} in slot {}, bookingId {}", participant.id(), slotId, bookingId);
+        return participantSlot(slotId, participant.id())
+                .method(ParticipantSlotEntity::cancel)
+                .invokeAsync(new ParticipantSlotEntity.Commands.Cancel(
+                        slotId.toString(), participant.id(), participant.participantType(), bookingId, sourceTime));
+    }
+
+    private CompletionStage<Done> purge(SlotId slotId, String participantId) {
+        return participantSlot(slotId, participantId)
+                .method(ParticipantSlotEntity::purge)
+                .invokeAsync(new ParticipantSlotEntity.Commands.Purge(slotId.toString(), participantId));
+    }
+
+    private static CompletionStage<Done> allDone(List<CompletionStage<Done>> calls) {
+        return CompletableFuture
+                .allOf(calls.stream().map(CompletionStage::toCompletableFuture).toArray(CompletableFuture[]::new))
+                .thenApply(__ -> Done.done());
     }
 
     // Participant slots are keyed by a derived key made up of
     // {slotId}-{participantId}
     // We don't need the participant type here because the participant IDs
     // should always be unique/UUIDs
-    private String participantSlotId(BookingEvent event) {
-        return switch (event) {
-            case BookingEvent.ParticipantBooked evt -> evt.slotId() + "-" + evt.participantId();
-            case BookingEvent.ParticipantUnmarkedAvailable evt -> evt.slotId() + "-" + evt.participantId();
-            case BookingEvent.ParticipantMarkedAvailable evt -> evt.slotId() + "-" + evt.participantId();
-            case BookingEvent.ParticipantCanceled evt -> evt.slotId() + "-" + evt.participantId();
-        };
+    private EventSourcedEntityClient participantSlot(SlotId slotId, String participantId) {
+        return client.forEventSourcedEntity(slotId + "-" + participantId);
     }
 }
@@ -0,0 +1,53 @@
+package io.example.domain;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+// A recurring availability: the participant is available on the given days of
+// the week, from `fromHour` up to (not including) `toHour`, for every date from
+// `firstDay` to `lastDay` inclusive. "Weekdays 08-17 for six weeks" is
+// MONDAY..FRIDAY, 8, 17 over a six week date range.
+public record AvailabilityRule(
+    Participant participant,
+    LocalDate firstDay,
+    LocalDate lastDay,
+    Set<DayOfWeek> days,
+    int fromHour,
+    int toHour) {
+
+  // Describes what is wrong with the rule, if anything, given the most slots a
+  // rule may cover
+  public Optional<String> validate(int maxSlots) {
+    if (participant == null || participant.id() == null || participant.id().isBlank()) {
+      return Optional.of("participantId is required");
+    }
+    if (participant.participantType() == null) return Optional.of("participantType is required");
+    if (firstDay == null || lastDay == null) return Optional.of("firstDay and lastDay are required");
+    if (lastDay.isBefore(firstDay)) return Optional.of("lastDay must not be before firstDay");
+    if (days == null || days.isEmpty()) return Optional.of("at least one day of the week is required");
+    if (fromHour < 0 || toHour > 24 || fromHour >= toHour) {
+      return Optional.of("hours must satisfy 0 <= fromHour < toHour <= 24");
+    }
+    long weeks = (lastDay.toEpochDay() - firstDay.toEpochDay()) / 7 + 1;
+    if (weeks * days.size() * (toHour - fromHour) > maxSlots) {
+      return Optional.of("a rule may cover at most " + maxSlots + " slots");
+    }
+    return Optional.empty();
+  }
+
+  // Every slot the rule covers, in order
+  public List<SlotId> slots() {
+    List<SlotId> slots = new ArrayList<>();
+    for (LocalDate day = firstDay; !day.isAfter(lastDay); day = day.plusDays(1)) {
+      if (!days.contains(day.getDayOfWeek())) continue;
+      for (int hour = fromHour; hour < toHour; hour++) {
+        slots.add(SlotId.of(day.atTime(hour, 0)));
+      }
+    }
+    return slots;
+  }
+}
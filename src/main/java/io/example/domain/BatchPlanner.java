@@ -0,0 +1,124 @@
+package io.example.domain;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Assigns lessons to slots, instructors and aircraft in memory. Each lesson
+// needs its student, an instructor and an aircraft available in the same slot;
+// a lesson may ask for a specific instructor or aircraft. No participant is
+// given two lessons in one slot.
+//
+// The assignment is greedy: lessons with the fewest candidate slots are placed
+// first, each in the earliest slot that still works, taking the first free
+// instructor and aircraft by ID. That isn't guaranteed to place every lesson
+// that could be placed, but it is fast and deterministic.
+public final class BatchPlanner {
+
+  private BatchPlanner() {}
+
+  public static Plan plan(List<Lesson> lessons, List<Opening> openings) {
+    Map<SlotId, Opening> remaining = new LinkedHashMap<>();
+    openings.stream()
+        .sorted(Comparator.comparing(Opening::slotId))
+        .forEach(o -> remaining.put(o.slotId(), o));
+
+    List<Lesson> ordered = new ArrayList<>(lessons);
+    ordered.sort(Comparator.comparingLong(lesson -> candidateCount(lesson, remaining)));
+
+    List<Assignment> assignments = new ArrayList<>();
+    List<Lesson> unassigned = new ArrayList<>();
+    for (Lesson lesson : ordered) {
+      Optional<Assignment> assignment = place(lesson, remaining);
+      if (assignment.isEmpty()) {
+        unassigned.add(lesson);
+        continue;
+      }
+      Assignment a = assignment.get();
+      assignments.add(a);
+      remaining.computeIfPresent(
+          a.slotId(), (slot, o) -> o.without(a.studentId(), a.instructorId(), a.aircraftId()));
+    }
+    return new Plan(assignments, unassigned, List.copyOf(remaining.values()));
+  }
+
+  private static long candidateCount(Lesson lesson, Map<SlotId, Opening> openings) {
+    return openings.values().stream().filter(o -> o.fits(lesson)).count();
+  }
+
+  private static Optional<Assignment> place(Lesson lesson, Map<SlotId, Opening> openings) {
+    for (Opening o : openings.values()) {
+      if (!o.fits(lesson)) continue;
+      String instructor = pick(lesson.instructorId(), o.instructors());
+      String aircraft = pick(lesson.aircraftId(), o.aircraft());
+      return Optional.of(
+          new Assignment(lesson.bookingId(), o.slotId(), lesson.studentId(), instructor, aircraft));
+    }
+    return Optional.empty();
+  }
+
+  private static String pick(String requested, Set<String> available) {
+    return requested != null ? requested : new TreeSet<>(available).first();
+  }
+
+  // One student's lesson. instructorId and aircraftId are optional; null
+  // means any.
+  public record Lesson(String bookingId, String studentId, String instructorId, String aircraftId) {}
+
+  // Who is still available in a slot
+  public record Opening(
+      SlotId slotId, Set<String> students, Set<String> instructors, Set<String> aircraft) {
+
+    boolean fits(Lesson lesson) {
+      return students.contains(lesson.studentId())
+          && (lesson.instructorId() == null
+              ? !instructors.isEmpty()
+              : instructors.contains(lesson.instructorId()))
+          && (lesson.aircraftId() == null
+              ? !aircraft.isEmpty()
+              : aircraft.contains(lesson.aircraftId()));
+    }
+
+    public Opening without(String studentId, String instructorId, String aircraftId) {
+      return new Opening(
+          slotId,
+          minus(students, studentId),
+          minus(instructors, instructorId),
+          minus(aircraft, aircraftId));
+    }
+
+    // Everyone available in either opening of the same slot
+    public Opening plus(Opening other) {
+      return new Opening(
+          slotId,
+          union(students, other.students),
+          union(instructors, other.instructors),
+          union(aircraft, other.aircraft));
+    }
+
+    private static Set<String> union(Set<String> ids, Set<String> others) {
+      Set<String> updated = new HashSet<>(ids);
+      updated.addAll(others);
+      return updated;
+    }
+
+    private static Set<String> minus(Set<String> ids, String id) {
+      Set<String> updated = new HashSet<>(ids);
+      updated.remove(id);
+      return updated;
+    }
+  }
+
+  public record Assignment(
+      String bookingId, SlotId slotId, String studentId, String instructorId, String aircraftId) {}
+
+  // The assignments made, the lessons that couldn't be placed, and who is
+  // left available in each slot afterwards
+  public record Plan(List<Assignment> assignments, List<Lesson> unassigned, List<Opening> remaining) {}
+}
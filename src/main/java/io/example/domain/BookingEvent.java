@@ -2,27 +2,75 @@ package io.example.domain;
 
 import akka.javasdk.annotations.TypeName;
 import io.example.domain.Participant.ParticipantType;
+import java.util.List;
 
-// The list of all events emitted by the BookingSlotEntity
+// The list of all events emitted by the BookingSlotEntity.
+//
+// A booking and its cancellation are each recorded as a single event carrying
+// the whole booking (SlotBooked, BookingCanceled). Journals written before that
+// hold three per-participant events instead (ParticipantBooked,
+// ParticipantCanceled); those are no longer emitted but still replay.
+//
+// The slot is a SlotId, written as its epoch hour. Events written before
+// SlotId carry the `yyyy-MM-dd-HH` string, which still reads back; the slot of
+// an old event whose string isn't such an hour reads back as null (see SlotId).
 public sealed interface BookingEvent {
 
+  SlotId slotId();
+
   @TypeName("slot-reserved")
   record ParticipantMarkedAvailable(
-      String slotId, String participantId, ParticipantType participantType)
+      SlotId slotId, String participantId, ParticipantType participantType)
       implements BookingEvent {}
 
   @TypeName("slot-unreserved")
   record ParticipantUnmarkedAvailable(
-      String slotId, String participantId, ParticipantType participantType)
+      SlotId slotId, String participantId, ParticipantType participantType)
       implements BookingEvent {}
 
   @TypeName("reservation-booked")
   record ParticipantBooked(
-      String slotId, String participantId, ParticipantType participantType, String bookingId)
+      SlotId slotId, String participantId, ParticipantType participantType, String bookingId)
       implements BookingEvent {}
 
   @TypeName("booking-participant-canceled")
   record ParticipantCanceled(
-      String slotId, String participantId, ParticipantType participantType, String bookingId)
+      SlotId slotId, String participantId, ParticipantType participantType, String bookingId)
       implements BookingEvent {}
+
+  @TypeName("slot-booked")
+  record SlotBooked(
+      SlotId slotId, String studentId, String aircraftId, String instructorId, String bookingId)
+      implements BookingEvent {
+    public List<Participant> participants() {
+      return BookingEvent.participants(studentId, aircraftId, instructorId);
+    }
+  }
+
+  @TypeName("booking-canceled")
+  record BookingCanceled(
+      SlotId slotId, String studentId, String aircraftId, String instructorId, String bookingId)
+      implements BookingEvent {
+    public List<Participant> participants() {
+      return BookingEvent.participants(studentId, aircraftId, instructorId);
+    }
+  }
+
+  // The slot is closed: it is in the past and takes no further changes
+  @TypeName("slot-sealed")
+  record SlotSealed(SlotId slotId) implements BookingEvent {}
+
+  // The sealed slot was archived and its entity is being deleted. Lists its
+  // current participants plus those whose booking was canceled, so derived
+  // per-participant state can be removed too.
+  @TypeName("slot-purged")
+  record SlotPurged(SlotId slotId, List<String> participantIds) implements BookingEvent {}
+
+  private static List<Participant> participants(
+      String studentId, String aircraftId, String instructorId) {
+    return List.of(
+        new Participant(studentId, ParticipantType.STUDENT),
+        new Participant(aircraftId, ParticipantType.AIRCRAFT),
+        new Participant(instructorId, ParticipantType.INSTRUCTOR));
+  }
 }
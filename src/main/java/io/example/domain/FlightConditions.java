@@ -0,0 +1,37 @@
+package io.example.domain;
+
+import java.util.List;
+import java.util.Locale;
+
+// The flight conditions rules shared by the FlightConditionsAgent (which is told
+// to apply them) and the in-process rule evaluator (which applies them directly).
+// The forecast is a canned one: the 13th of every month is stormy, every other
+// day is clear.
+public final class FlightConditions {
+
+  // Any forecast mentioning one of these is a no-go for training flights
+  public static final List<String> NO_GO_CONDITIONS = List.of("thunderstorms", "high winds");
+
+  private FlightConditions() {}
+
+  public static final String NO_FORECAST = "No forecast available for this time slot.";
+
+  // Takes slot IDs as written by callers such as the model, so anything that
+  // isn't a `yyyy-MM-dd-HH` hour gets NO_FORECAST rather than an exception
+  public static String forecast(String timeSlotId) {
+    return SlotId.tryParse(timeSlotId).map(FlightConditions::forecast).orElse(NO_FORECAST);
+  }
+
+  public static String forecast(SlotId slotId) {
+    // 13th is unlucky
+    if (slotId.dayOfMonth() == 13) {
+      return "Thunderstorms and high winds expected.";
+    }
+    return "Clear skies, light breeze.";
+  }
+
+  public static boolean meetsRequirements(String forecast) {
+    String normalized = forecast.toLowerCase(Locale.ROOT);
+    return NO_GO_CONDITIONS.stream().noneMatch(normalized::contains);
+  }
+}
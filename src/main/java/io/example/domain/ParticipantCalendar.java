@@ -0,0 +1,163 @@
+package io.example.domain;
+
+import io.example.domain.Participant.ParticipantType;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// One participant's slots for one calendar month. Every hour of the month has a
+// bit in each of three bitsets (available, booked, canceled), stored as the
+// long words of a BitSet (12 longs cover the 744 hours of a 31-day month), plus
+// the booking ID of each booked hour. Hour `h` of the month is the slot whose
+// SlotId.hourOfMonth() is `h`.
+//
+// Statuses follow the participant slot ones: an hour is canceled once its
+// booking is canceled, until the participant is marked available or booked in
+// it again.
+public record ParticipantCalendar(
+    String participantId,
+    ParticipantType participantType,
+    String month,
+    long[] available,
+    long[] booked,
+    long[] canceled,
+    Map<Integer, String> bookings) {
+
+  public static ParticipantCalendar empty(String participantId, String month) {
+    return new ParticipantCalendar(
+        participantId, null, month, new long[0], new long[0], new long[0], Map.of());
+  }
+
+  public ParticipantCalendar markAvailable(int hour, ParticipantType type) {
+    return new ParticipantCalendar(
+        participantId,
+        type,
+        month,
+        set(available, hour, true),
+        booked,
+        set(canceled, hour, false),
+        bookings);
+  }
+
+  public ParticipantCalendar unmarkAvailable(int hour, ParticipantType type) {
+    return new ParticipantCalendar(
+        participantId, type, month, set(available, hour, false), booked, canceled, bookings);
+  }
+
+  public ParticipantCalendar book(int hour, ParticipantType type, String bookingId) {
+    Map<Integer, String> updated = new HashMap<>(bookings);
+    updated.put(hour, bookingId);
+    return new ParticipantCalendar(
+        participantId,
+        type,
+        month,
+        set(available, hour, false),
+        set(booked, hour, true),
+        set(canceled, hour, false),
+        Map.copyOf(updated));
+  }
+
+  public ParticipantCalendar cancel(int hour, ParticipantType type, String bookingId) {
+    if (!bookingId.equals(bookings.get(hour))) {
+      return this;
+    }
+    return cancelHour(hour, type);
+  }
+
+  // Cancels whatever is booked in the hour. For replaying HourCanceled events,
+  // which are only persisted once the booking ID has been checked.
+  public ParticipantCalendar cancelHour(int hour, ParticipantType type) {
+    Map<Integer, String> updated = new HashMap<>(bookings);
+    updated.remove(hour);
+    return new ParticipantCalendar(
+        participantId,
+        type,
+        month,
+        available,
+        set(booked, hour, false),
+        set(canceled, hour, true),
+        Map.copyOf(updated));
+  }
+
+  public boolean isAvailable(int hour) {
+    return BitSet.valueOf(available).get(hour);
+  }
+
+  public boolean isBooked(int hour, String bookingId) {
+    return bookingId.equals(bookings.get(hour));
+  }
+
+  public List<String> availableSlotIds() {
+    return slotIds(available);
+  }
+
+  public List<String> bookedSlotIds() {
+    return slotIds(booked);
+  }
+
+  public List<String> canceledSlotIds() {
+    return slotIds(canceled);
+  }
+
+  public String slotId(int hour) {
+    return String.format("%s-%02d-%02d", month, hour / 24 + 1, hour % 24);
+  }
+
+  // Hour counts for each day of the month that has any, in date order
+  public List<Utilization> utilizationByDay() {
+    BitSet availableBits = BitSet.valueOf(available);
+    BitSet bookedBits = BitSet.valueOf(booked);
+    BitSet canceledBits = BitSet.valueOf(canceled);
+    YearMonth yearMonth = YearMonth.parse(month);
+    List<Utilization> days = new ArrayList<>();
+    for (int day = 0; day < yearMonth.lengthOfMonth(); day++) {
+      int from = day * 24;
+      Utilization utilization =
+          new Utilization(
+              yearMonth.atDay(day + 1).toString(),
+              availableBits.get(from, from + 24).cardinality(),
+              bookedBits.get(from, from + 24).cardinality(),
+              canceledBits.get(from, from + 24).cardinality());
+      if (!utilization.isEmpty()) days.add(utilization);
+    }
+    return days;
+  }
+
+  // Hour counts for each ISO week of the month that has any. The first and last
+  // weeks usually run into the neighbouring months and only cover this month's
+  // days of them.
+  public List<Utilization> utilizationByWeek() {
+    Map<String, Utilization> weeks = new LinkedHashMap<>();
+    for (Utilization day : utilizationByDay()) {
+      String week = weekOf(LocalDate.parse(day.period()));
+      weeks.merge(week, Utilization.empty(week).plus(day), Utilization::plus);
+    }
+    return List.copyOf(weeks.values());
+  }
+
+  public static String weekOf(LocalDate date) {
+    return String.format(
+        "%d-W%02d", date.get(IsoFields.WEEK_BASED_YEAR), date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+  }
+
+  private List<String> slotIds(long[] words) {
+    BitSet bits = BitSet.valueOf(words);
+    List<String> ids = new ArrayList<>(bits.cardinality());
+    for (int h = bits.nextSetBit(0); h >= 0; h = bits.nextSetBit(h + 1)) {
+      ids.add(slotId(h));
+    }
+    return ids;
+  }
+
+  private static long[] set(long[] words, int hour, boolean value) {
+    BitSet bits = BitSet.valueOf(words);
+    bits.set(hour, value);
+    return bits.toLongArray();
+  }
+}
@@ -0,0 +1,104 @@
+package io.example.domain;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.Optional;
+
+// Identifies a one-hour timeslot. The public form is the `yyyy-MM-dd-HH` local
+// hour used in URLs and entity IDs; internally a slot is the number of hours
+// since 1970-01-01-00, so slots compare, sort and range-scan as plain ints.
+//
+// A SlotId serializes as that int. It also deserializes from the string form,
+// which is how slot IDs were written before this type existed. Those strings
+// were never validated, so one that isn't a `yyyy-MM-dd-HH` hour reads back as
+// null instead of failing the whole journal; readers skip such events.
+public record SlotId(@JsonValue int epochHour) implements Comparable<SlotId> {
+
+  private static final DateTimeFormatter FORMAT =
+      DateTimeFormatter.ofPattern("uuuu-MM-dd-HH").withResolverStyle(ResolverStyle.STRICT);
+
+  public static final SlotId MIN = new SlotId(0);
+  public static final SlotId MAX = parse("9999-12-31-23");
+
+  public SlotId {
+    if (epochHour < 0) {
+      throw new IllegalArgumentException("Slot hour must not be negative: " + epochHour);
+    }
+  }
+
+  public static SlotId of(int epochHour) {
+    return new SlotId(epochHour);
+  }
+
+  public static SlotId of(LocalDateTime hour) {
+    return new SlotId((int) Math.floorDiv(hour.toEpochSecond(ZoneOffset.UTC), 3600));
+  }
+
+  // The slot of the current local hour
+  public static SlotId now() {
+    return of(LocalDateTime.now());
+  }
+
+  public static SlotId parse(String slotId) {
+    return tryParse(slotId)
+        .orElseThrow(
+            () -> new IllegalArgumentException("Invalid slot ID, expected yyyy-MM-dd-HH: " + slotId));
+  }
+
+  public static Optional<SlotId> tryParse(String slotId) {
+    if (slotId == null || slotId.length() != 13) return Optional.empty();
+    try {
+      return Optional.of(of(LocalDateTime.parse(slotId, FORMAT)));
+    } catch (DateTimeParseException | IllegalArgumentException ex) {
+      return Optional.empty();
+    }
+  }
+
+  @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+  public static SlotId fromJson(JsonNode node) {
+    return node.isNumber() ? of(node.intValue()) : tryParse(node.asText()).orElse(null);
+  }
+
+  public LocalDateTime toLocalDateTime() {
+    return LocalDateTime.ofEpochSecond(epochHour * 3600L, 0, ZoneOffset.UTC);
+  }
+
+  public SlotId plusHours(int hours) {
+    return new SlotId(epochHour + hours);
+  }
+
+  public boolean isAfter(SlotId other) {
+    return epochHour > other.epochHour;
+  }
+
+  public int dayOfMonth() {
+    return toLocalDateTime().getDayOfMonth();
+  }
+
+  // The `yyyy-MM` month this slot falls in
+  public String month() {
+    return toString().substring(0, 7);
+  }
+
+  // Hours since the start of the slot's month, 0 to 743
+  public int hourOfMonth() {
+    LocalDateTime time = toLocalDateTime();
+    return (time.getDayOfMonth() - 1) * 24 + time.getHour();
+  }
+
+  @Override
+  public int compareTo(SlotId other) {
+    return Integer.compare(epochHour, other.epochHour);
+  }
+
+  @Override
+  public String toString() {
+    return toLocalDateTime().format(FORMAT);
+  }
+}
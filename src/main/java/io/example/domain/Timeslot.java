@@ -1,39 +1,150 @@
 package io.example.domain;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonValue;
 import io.example.domain.Participant.ParticipantType;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import org.pcollections.HashTreePMap;
+import org.pcollections.HashTreePSet;
+import org.pcollections.PMap;
+import org.pcollections.PSet;
 
 // The Timeslot is a core domain object. It maintain two internal sets:
 // the list of bookings and the list of participants available for booking.
 // As bookings and availability are added and removed, the contents of those
 // sets are shifted from one to the other.
-public record Timeslot(Set<Booking> bookings, Set<Participant> available) {
+//
+// A Timeslot is immutable. Its sets are persistent collections, so every
+// transition returns a new Timeslot that shares structure with the previous
+// one at O(log n) cost, and any instance can be handed to concurrent readers.
+//
+// Two secondary indexes are kept alongside the sets so that lookups never scan:
+// bookings grouped by booking ID, and available participant IDs partitioned by
+// participant type. The indexes are derived data; they are rebuilt whenever a
+// Timeslot is deserialized.
+//
+// A sealed Timeslot is closed for good: its hour has passed and the booking
+// slot entity rejects any further change to it.
+//
+// `departed` holds the IDs of participants whose booking in the slot was
+// canceled, so that purging the slot reaches the canceled participant slots
+// derived from it, not only the current participants. Unmarking drops a
+// participant from it: their participant slot is deleted on unmark, so there
+// is nothing left to purge, and mark/unmark churn doesn't grow the snapshot.
+//
+// A Timeslot is serialized (as entity state and snapshot) in the compact
+// Snapshot form below rather than as its raw sets. Use the API representation
+// in the endpoint for the public `bookings`/`available` shape.
+public record Timeslot(
+    PSet<Booking> bookings,
+    PSet<Participant> available,
+    PMap<String, PSet<Booking>> bookingsById,
+    PMap<ParticipantType, PSet<String>> availableByType,
+    PSet<String> departed,
+    boolean sealed) {
+
+  private static final Timeslot EMPTY =
+      new Timeslot(HashTreePSet.empty(), HashTreePSet.empty());
+
+  public Timeslot(Set<Booking> bookings, Set<Participant> available) {
+    this(bookings, available, Set.of(), false);
+  }
+
+  public Timeslot(
+      Set<Booking> bookings, Set<Participant> available, Set<String> departed, boolean sealed) {
+    this(
+        bookings == null ? HashTreePSet.empty() : HashTreePSet.from(bookings),
+        available == null ? HashTreePSet.empty() : HashTreePSet.from(available),
+        indexBookings(bookings),
+        indexAvailable(available),
+        departed == null ? HashTreePSet.empty() : HashTreePSet.from(departed),
+        sealed);
+  }
+
+  public static Timeslot empty() {
+    return EMPTY;
+  }
+
+  // Applies a single BookingSlotEntity event to this timeslot. This is the
+  // whole of the entity's event handler, kept here so replay can be exercised
+  // (and benchmarked) without the Akka runtime.
+  public Timeslot onEvent(BookingEvent event) {
+    return switch (event) {
+      case BookingEvent.ParticipantMarkedAvailable e -> reserve(e);
+      case BookingEvent.ParticipantUnmarkedAvailable e -> unreserve(e);
+      case BookingEvent.ParticipantBooked e -> book(e);
+      case BookingEvent.ParticipantCanceled e -> cancelBooking(e.bookingId());
+      case BookingEvent.SlotBooked e -> book(e);
+      case BookingEvent.BookingCanceled e -> cancelBooking(e.bookingId());
+      case BookingEvent.SlotSealed e -> seal();
+      case BookingEvent.SlotPurged e -> EMPTY.seal();
+    };
+  }
 
   public Timeslot reserve(BookingEvent.ParticipantMarkedAvailable reserved) {
-    available.add(new Participant(reserved.participantId(), reserved.participantType()));
+    Participant p = new Participant(reserved.participantId(), reserved.participantType());
 
-    return new Timeslot(bookings, available);
+    return new Timeslot(
+        bookings, available.plus(p), bookingsById, withAvailable(p, true), departed, sealed);
   }
 
   public Timeslot unreserve(BookingEvent.ParticipantUnmarkedAvailable unreserved) {
-    available.remove(new Participant(unreserved.participantId(), unreserved.participantType()));
+    Participant p = new Participant(unreserved.participantId(), unreserved.participantType());
 
-    return new Timeslot(bookings, available);
+    return new Timeslot(
+        bookings,
+        available.minus(p),
+        bookingsById,
+        withAvailable(p, false),
+        departed.minus(p.id()),
+        sealed);
   }
 
   public Timeslot book(BookingEvent.ParticipantBooked booked) {
     Participant p = new Participant(booked.participantId(), booked.participantType());
-    available.remove(p);
-    bookings.add(new Booking(p, booked.bookingId()));
+    Booking booking = new Booking(p, booked.bookingId());
+    PSet<Booking> sameBooking = bookingsById.getOrDefault(booked.bookingId(), HashTreePSet.empty());
+
+    return new Timeslot(
+        bookings.plus(booking),
+        available.minus(p),
+        bookingsById.plus(booked.bookingId(), sameBooking.plus(booking)),
+        withAvailable(p, false),
+        departed,
+        sealed);
+  }
+
+  // Books all three participants of a booking at once
+  public Timeslot book(BookingEvent.SlotBooked booked) {
+    PSet<Booking> booking = HashTreePSet.empty();
+    PSet<Participant> stillAvailable = available;
+    PMap<ParticipantType, PSet<String>> byType = availableByType;
+    for (Participant p : booked.participants()) {
+      booking = booking.plus(new Booking(p, booked.bookingId()));
+      stillAvailable = stillAvailable.minus(p);
+      byType = byType.plus(p.participantType(), byType.get(p.participantType()).minus(p.id()));
+    }
+    PSet<Booking> sameBooking = bookingsById.getOrDefault(booked.bookingId(), HashTreePSet.empty());
 
-    return new Timeslot(bookings, available);
+    return new Timeslot(
+        bookings.plusAll(booking),
+        stillAvailable,
+        bookingsById.plus(booked.bookingId(), sameBooking.plusAll(booking)),
+        byType,
+        departed,
+        sealed);
   }
 
   // Checks to see if the given participant is among those marked as available
   public boolean isWaiting(String participantId, ParticipantType participantType) {
-    return available.contains(new Participant(participantId, participantType));
+    return availableByType.get(participantType).contains(participantId);
   }
 
   public boolean isBookable(String studentId, String aircraftId, String instructorId) {
@@ -42,20 +153,145 @@ public record Timeslot(Set<Booking> bookings, Set<Participant> available) {
         && isWaiting(instructorId, ParticipantType.INSTRUCTOR);
   }
 
+  // The IDs of all participants of the given type that are available in this slot
+  public Set<String> availableOfType(ParticipantType participantType) {
+    return availableByType.get(participantType);
+  }
+
   // Retrieves all booking entries for a given booking ID. Note that there will
   // be 3 participants for a single booking, so this will usually return no items
   // or 3 items.
   public List<Booking> findBooking(String bookingId) {
-    return bookings.stream().filter(b -> b.bookingId().equals(bookingId)).toList();
+    PSet<Booking> found = bookingsById.get(bookingId);
+    return found == null ? List.of() : List.copyOf(found);
   }
 
   // Removes all three participants of a booking from the booking list. It does
   // not automatically mark them as available for that slot.
   public Timeslot cancelBooking(String bookingId) {
-    Set<Booking> books =
-        bookings.stream().filter(b -> !b.bookingId().equals(bookingId)).collect(Collectors.toSet());
-    return new Timeslot(books, available);
+    PSet<Booking> canceled = bookingsById.get(bookingId);
+    if (canceled == null) {
+      return this;
+    }
+    PSet<String> canceledIds = departed;
+    for (Booking b : canceled) {
+      canceledIds = canceledIds.plus(b.participant().id());
+    }
+    return new Timeslot(
+        bookings.minusAll(canceled),
+        available,
+        bookingsById.minus(bookingId),
+        availableByType,
+        canceledIds,
+        sealed);
+  }
+
+  public Timeslot seal() {
+    return sealed
+        ? this
+        : new Timeslot(bookings, available, bookingsById, availableByType, departed, true);
+  }
+
+  // The IDs of everyone with a participant slot derived from this slot:
+  // available, booked, or canceled
+  public Set<String> participantIds() {
+    Set<String> ids = new HashSet<>(departed);
+    available.forEach(p -> ids.add(p.id()));
+    bookings.forEach(b -> ids.add(b.participant().id()));
+    return ids;
+  }
+
+  @JsonValue
+  public Snapshot toSnapshot() {
+    Map<ParticipantType, List<String>> availableIds = new EnumMap<>(ParticipantType.class);
+    availableByType.forEach(
+        (type, ids) -> {
+          if (!ids.isEmpty()) availableIds.put(type, List.copyOf(ids));
+        });
+    Map<String, Map<ParticipantType, String>> bookedIds = new HashMap<>();
+    bookingsById.forEach(
+        (bookingId, entries) -> {
+          Map<ParticipantType, String> byType = new EnumMap<>(ParticipantType.class);
+          entries.forEach(b -> byType.put(b.participant().participantType(), b.participant().id()));
+          bookedIds.put(bookingId, byType);
+        });
+    return new Snapshot(
+        availableIds,
+        bookedIds,
+        departed.isEmpty() ? null : List.copyOf(departed),
+        sealed ? Boolean.TRUE : null,
+        null,
+        null);
+  }
+
+  @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+  public static Timeslot fromSnapshot(Snapshot snapshot) {
+    Set<Participant> available = new HashSet<>();
+    Set<Booking> bookings = new HashSet<>();
+    if (snapshot.available() != null) {
+      snapshot
+          .available()
+          .forEach((type, ids) -> ids.forEach(id -> available.add(new Participant(id, type))));
+    }
+    if (snapshot.bookings() != null) {
+      snapshot
+          .bookings()
+          .forEach(
+              (bookingId, byType) ->
+                  byType.forEach(
+                      (type, id) -> bookings.add(new Booking(new Participant(id, type), bookingId))));
+    }
+    if (snapshot.legacyAvailable() != null) available.addAll(snapshot.legacyAvailable());
+    if (snapshot.legacyBookings() != null) bookings.addAll(snapshot.legacyBookings());
+    return new Timeslot(
+        bookings, available, snapshot.departed() == null ? Set.of() : Set.copyOf(snapshot.departed()),
+        Boolean.TRUE.equals(snapshot.sealed()));
+  }
+
+  private PMap<ParticipantType, PSet<String>> withAvailable(Participant p, boolean isAvailable) {
+    PSet<String> ofType = availableByType.get(p.participantType());
+    return availableByType.plus(
+        p.participantType(), isAvailable ? ofType.plus(p.id()) : ofType.minus(p.id()));
+  }
+
+  private static PMap<String, PSet<Booking>> indexBookings(Set<Booking> bookings) {
+    PMap<String, PSet<Booking>> index = HashTreePMap.empty();
+    if (bookings != null) {
+      for (Booking b : bookings) {
+        index =
+            index.plus(
+                b.bookingId(), index.getOrDefault(b.bookingId(), HashTreePSet.empty()).plus(b));
+      }
+    }
+    return index;
+  }
+
+  private static PMap<ParticipantType, PSet<String>> indexAvailable(Set<Participant> available) {
+    PMap<ParticipantType, PSet<String>> index = HashTreePMap.empty();
+    for (ParticipantType type : ParticipantType.values()) {
+      index = index.plus(type, HashTreePSet.empty());
+    }
+    if (available != null) {
+      for (Participant p : available) {
+        index = index.plus(p.participantType(), index.get(p.participantType()).plus(p.id()));
+      }
+    }
+    return index;
   }
 
   public record Booking(Participant participant, String bookingId) {}
+
+  // Compact serialized form of a Timeslot: available participant IDs grouped by
+  // type (`a`), and each booking's participant IDs by type keyed by booking ID
+  // (`b`), the IDs of departed participants (`d`), plus `s` when sealed. The
+  // legacy fields accept state written in the original
+  // `{"bookings": [...], "available": [...]}` layout and are never written.
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public record Snapshot(
+      @JsonProperty("a") Map<ParticipantType, List<String>> available,
+      @JsonProperty("b") Map<String, Map<ParticipantType, String>> bookings,
+      @JsonProperty("d") List<String> departed,
+      @JsonProperty("s") Boolean sealed,
+      @JsonProperty("available") List<Participant> legacyAvailable,
+      @JsonProperty("bookings") List<Booking> legacyBookings) {}
 }
@@ -0,0 +1,24 @@
+package io.example.domain;
+
+// A participant's hour counts over one period: a day (`yyyy-MM-dd`) or an ISO
+// week (`yyyy-Www`). Counts follow the participant calendar statuses, so an hour
+// counts as canceled once its booking is canceled, until it is marked
+// available or booked again.
+public record Utilization(String period, int availableHours, int bookedHours, int canceledHours) {
+
+  public static Utilization empty(String period) {
+    return new Utilization(period, 0, 0, 0);
+  }
+
+  public Utilization plus(Utilization other) {
+    return new Utilization(
+        period,
+        availableHours + other.availableHours,
+        bookedHours + other.bookedHours,
+        canceledHours + other.canceledHours);
+  }
+
+  public boolean isEmpty() {
+    return availableHours == 0 && bookedHours == 0 && canceledHours == 0;
+  }
+}
@@ -0,0 +1,104 @@
+package io.example.application;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import akka.javasdk.client.EventSourcedEntityClient;
+import akka.javasdk.testkit.EventSourcedTestKit;
+import akka.javasdk.testkit.TestKit;
+import akka.javasdk.testkit.TestKitSupport;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.ParticipantCalendar;
+import io.example.domain.SlotId;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+// In `calendar` projection mode, booking slot events are written to the
+// participants' monthly calendar entities, which GET /flight/calendar reads.
+// Calendar commands that wouldn't change the calendar persist nothing.
+public class ParticipantCalendarIntegrationTest extends TestKitSupport {
+
+    private static final String SLOT_ID = "2030-05-06-10";
+    private static final String OTHER_SLOT_ID = "2030-05-07-09";
+
+    @Override
+    protected TestKit.Settings testKitSettings() {
+        return TestKit.Settings.DEFAULT
+                .withAdditionalConfig("flight.participant-slots.projection = calendar")
+                .withAdditionalConfig("flight.close-out.enabled = false")
+                .withAdditionalConfig("flight-conditions.precompute.enabled = false");
+    }
+
+    @Test
+    public void calendarsFollowTheBookingSlots() {
+        markAvailable(SLOT_ID, new Participant("calendar-it-student", ParticipantType.STUDENT));
+        markAvailable(SLOT_ID, new Participant("calendar-it-plane", ParticipantType.AIRCRAFT));
+        markAvailable(SLOT_ID, new Participant("calendar-it-teacher", ParticipantType.INSTRUCTOR));
+        markAvailable(OTHER_SLOT_ID, new Participant("calendar-it-plane", ParticipantType.AIRCRAFT));
+        slot(SLOT_ID).method(BookingSlotEntity::bookSlot).invoke(new BookingSlotEntity.Command.BookReservation(
+                "calendar-it-student", "calendar-it-plane", "calendar-it-teacher", "calendar-it-booking"));
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> {
+            var response = httpClient.GET("/flight/calendar/calendar-it-plane/2030-05").invoke();
+            assertEquals(200, response.status().intValue());
+            String body = response.body().utf8String();
+            assertTrue(body.contains("\"" + SLOT_ID + "\":\"calendar-it-booking\""), body);
+            assertTrue(body.contains("\"available\":[\"" + OTHER_SLOT_ID + "\"]"), body);
+        });
+
+        slot(SLOT_ID).method(BookingSlotEntity::cancelBooking).invoke("calendar-it-booking");
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> {
+            ParticipantCalendar calendar = componentClient
+                    .forEventSourcedEntity(ParticipantCalendarEntity.calendarId("calendar-it-student", "2030-05"))
+                    .method(ParticipantCalendarEntity::getCalendar)
+                    .invoke();
+            assertEquals(List.of(SLOT_ID), calendar.canceledSlotIds());
+            assertTrue(calendar.bookedSlotIds().isEmpty());
+        });
+    }
+
+    @Test
+    public void calendarRouteRejectsAnInvalidMonth() {
+        var response = httpClient.GET("/flight/calendar/calendar-it-plane/2030-13").invoke();
+        assertEquals(400, response.status().intValue());
+    }
+
+    @Test
+    public void commandsThatChangeNothingPersistNoEvents() {
+        var calendar = EventSourcedTestKit.of(
+                ParticipantCalendarEntity.calendarId("calendar-it-pilot", "2030-05"), ParticipantCalendarEntity::new);
+        SlotId slotId = SlotId.parse(SLOT_ID);
+
+        var mark = new ParticipantCalendarEntity.Commands.MarkAvailable(slotId, ParticipantType.INSTRUCTOR);
+        assertTrue(calendar.method(ParticipantCalendarEntity::markAvailable).invoke(mark).didPersistEvents());
+        assertFalse(calendar.method(ParticipantCalendarEntity::markAvailable).invoke(mark).didPersistEvents());
+
+        var book = new ParticipantCalendarEntity.Commands.Book(slotId, ParticipantType.INSTRUCTOR, "pilot-booking");
+        assertTrue(calendar.method(ParticipantCalendarEntity::book).invoke(book).didPersistEvents());
+        assertFalse(calendar.method(ParticipantCalendarEntity::book).invoke(book).didPersistEvents());
+
+        // a cancellation of another booking leaves the hour booked
+        var otherCancel = new ParticipantCalendarEntity.Commands.Cancel(
+                slotId, ParticipantType.INSTRUCTOR, "other-booking");
+        assertFalse(calendar.method(ParticipantCalendarEntity::cancel).invoke(otherCancel).didPersistEvents());
+
+        // a slot of another month has no hour in this calendar
+        var otherMonth = new ParticipantCalendarEntity.Commands.MarkAvailable(
+                SlotId.parse("2030-06-01-10"), ParticipantType.INSTRUCTOR);
+        assertTrue(calendar.method(ParticipantCalendarEntity::markAvailable).invoke(otherMonth).isError());
+    }
+
+    private void markAvailable(String slotId, Participant participant) {
+        slot(slotId).method(BookingSlotEntity::markSlotAvailable)
+                .invoke(new BookingSlotEntity.Command.MarkSlotAvailable(participant));
+    }
+
+    private EventSourcedEntityClient slot(String slotId) {
+        return componentClient.forEventSourcedEntity(slotId);
+    }
+}
@@ -0,0 +1,71 @@
+package io.example.application;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import akka.javasdk.client.EventSourcedEntityClient;
+import akka.javasdk.testkit.TestKit;
+import akka.javasdk.testkit.TestKitSupport;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+// Closing out a slot removes everything derived from it in `entity` projection
+// mode, including the participant slots of a canceled booking, whose
+// participants are no longer available or booked in the slot when it is purged.
+public class SlotCloseOutIntegrationTest extends TestKitSupport {
+
+    // a slot long past, so that it can be sealed right away
+    private static final String SLOT_ID = "2020-01-06-10";
+
+    @Override
+    protected TestKit.Settings testKitSettings() {
+        return TestKit.Settings.DEFAULT
+                .withAdditionalConfig("flight.participant-slots.projection = entity")
+                // the test closes the slot out itself
+                .withAdditionalConfig("flight.close-out.enabled = false")
+                .withAdditionalConfig("flight-conditions.precompute.enabled = false");
+    }
+
+    @Test
+    public void purgingASlotRemovesTheParticipantSlotsOfCanceledBookings() {
+        markAvailable(new Participant("closeout-student", ParticipantType.STUDENT));
+        markAvailable(new Participant("closeout-plane", ParticipantType.AIRCRAFT));
+        markAvailable(new Participant("closeout-teacher", ParticipantType.INSTRUCTOR));
+        slot().method(BookingSlotEntity::bookSlot).invoke(new BookingSlotEntity.Command.BookReservation(
+                "closeout-student", "closeout-plane", "closeout-teacher", "closeout-booking"));
+        slot().method(BookingSlotEntity::cancelBooking).invoke("closeout-booking");
+
+        await().atMost(Duration.ofSeconds(10))
+                .untilAsserted(() -> assertEquals(1, canceledSlots("closeout-student")));
+
+        slot().method(BookingSlotEntity::seal).invoke();
+        slot().method(BookingSlotEntity::purge).invoke();
+
+        await().atMost(Duration.ofSeconds(10))
+                .untilAsserted(() -> {
+                    assertEquals(0, canceledSlots("closeout-student"));
+                    assertEquals(0, canceledSlots("closeout-plane"));
+                    assertEquals(0, canceledSlots("closeout-teacher"));
+                });
+    }
+
+    private void markAvailable(Participant participant) {
+        slot().method(BookingSlotEntity::markSlotAvailable)
+                .invoke(new BookingSlotEntity.Command.MarkSlotAvailable(participant));
+    }
+
+    private int canceledSlots(String participantId) {
+        return componentClient
+                .forView()
+                .method(ParticipantSlotsView::getSlotsByParticipantAndStatus)
+                .invoke(new ParticipantSlotsView.ParticipantStatusInput(participantId, "canceled"))
+                .slots()
+                .size();
+    }
+
+    private EventSourcedEntityClient slot() {
+        return componentClient.forEventSourcedEntity(SLOT_ID);
+    }
+}
@@ -10,6 +10,7 @@ import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
 import okhttp3.*;
+import okio.BufferedSource;
 
 public class FlightFlowSteps {
 
@@ -70,12 +71,43 @@ public class FlightFlowSteps {
         execute(request);
     }
 
+    @When("I PUT {string} with body:")
+    public void put(String path, String jsonBody) throws IOException {
+        Request request = new Request.Builder()
+                .url(baseUrl + path)
+                .put(RequestBody.create(jsonBody, JSON))
+                .header("Connection", "close")
+                .build();
+        execute(request);
+    }
+
     @When("I DELETE {string} with slotId {string} and bookingId {string}")
     public void cancelBooking(String pathTemplate, String slotId, String bId) throws IOException {
         String url = baseUrl + pathTemplate.replace("{slotId}", slotId).replace("{bookingId}", bId);
         execute(new Request.Builder().url(url).delete().header("Connection", "close").build());
     }
 
+    // Reads a server-sent event stream up to its first event (skipping
+    // keep-alive comments) and keeps that event's lines as the response body
+    @When("I read the first event from {string}")
+    public void readFirstEvent(String path) throws IOException {
+        if (lastResponse != null) lastResponse.close();
+        lastResponse = client.newCall(new Request.Builder()
+                .url(baseUrl + path)
+                .get()
+                .header("Accept", "text/event-stream")
+                .build()).execute();
+        StringBuilder event = new StringBuilder();
+        BufferedSource source = lastResponse.body().source();
+        String line;
+        while ((line = source.readUtf8Line()) != null) {
+            if (line.isEmpty() && event.length() > 0) break;
+            if (!line.isEmpty() && !line.startsWith(":")) event.append(line).append('\n');
+        }
+        lastBody = event.toString();
+        lastResponse.close();
+    }
+
     @Then("the response status should be {int}")
     public void assertStatus(int code) {
         assertNotNull(lastResponse);
@@ -121,6 +153,20 @@ public class FlightFlowSteps {
                 });
     }
 
+    @Then("eventually the response body should not contain {string}")
+    public void eventuallyBodyDoesNotContain(String text) {
+        await().atMost(Duration.ofSeconds(10))
+                .pollInterval(Duration.ofMillis(500))
+                .untilAsserted(() -> {
+                    if (lastResponse != null) {
+                        execute(lastResponse.request());
+                    }
+                    assertNotNull(lastBody);
+                    assertFalse(lastBody.contains(text),
+                            "Expected body not to contain '" + text + "' but was: " + lastBody);
+                });
+    }
+
     @Then("eventually the response body should contain no slots")
     public void eventuallyNoSlots() {
         await().atMost(Duration.ofSeconds(5))
@@ -148,6 +194,12 @@ public class FlightFlowSteps {
         assertTrue(lastBody.contains(text), "Expected body to contain '" + text + "' but was: " + lastBody);
     }
 
+    @Then("the response body should not contain {string}")
+    public void bodyDoesNotContainText(String text) {
+        assertNotNull(lastBody);
+        assertFalse(lastBody.contains(text), "Expected body not to contain '" + text + "' but was: " + lastBody);
+    }
+
     private void execute(Request req) throws IOException {
         if (lastResponse != null) lastResponse.close();
         lastResponse = client.newCall(req).execute();
@@ -0,0 +1,144 @@
+package io.example.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import akka.javasdk.http.StrictResponse;
+import akka.javasdk.testkit.TestKit;
+import akka.javasdk.testkit.TestKitSupport;
+import akka.javasdk.testkit.TestModelProvider;
+import akka.util.ByteString;
+import io.example.api.FlightEndpoint.AvailabilityRequest;
+import io.example.api.FlightEndpoint.BookingRequest;
+import io.example.application.FlightConditionsAgent;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+// Drives mark-available, book, cancel and slot queries against the whole
+// service at a configurable concurrency and reports throughput and latency
+// percentiles per endpoint. The service runs in-process on the testkit, with
+// the flight conditions agent enabled and answered by a local test model
+// provider, so a run needs no network and no model API key.
+//
+// Only runs with the `load` profile:
+//   mvn test -Pload -Dload.concurrency=32 -Dload.bookings=2000
+//
+// Each booking cycle uses its own slot: three participants are marked
+// available, the slot is booked, read back, queried from the participant view,
+// and canceled.
+@EnabledIfSystemProperty(named = "flight.load", matches = "true")
+public class FlightLoadTest extends TestKitSupport {
+
+    private static final DateTimeFormatter SLOT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH");
+    private static final LocalDateTime FIRST_SLOT = LocalDateTime.of(2099, 1, 1, 0, 0);
+
+    private final int concurrency = Integer.getInteger("load.concurrency", 16);
+    private final int bookings = Integer.getInteger("load.bookings", 500);
+    private final boolean conditionsCache = Boolean.parseBoolean(System.getProperty("load.conditions-cache", "false"));
+    private final double maxP99Millis = Double.parseDouble(System.getProperty("load.max-p99-ms", "0"));
+
+    private final TestModelProvider conditionsModel = new TestModelProvider();
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    @Override
+    protected TestKit.Settings testKitSettings() {
+        return TestKit.Settings.DEFAULT
+                .withAdditionalConfig("flight-conditions.evaluator = agent")
+                .withAdditionalConfig("flight-conditions.cache.enabled = " + conditionsCache)
+                // measure the booking path's own agent calls, without background precomputation
+                .withAdditionalConfig("flight-conditions.precompute.enabled = false")
+                .withModelProvider(FlightConditionsAgent.class, conditionsModel);
+    }
+
+    @Test
+    public void bookingCyclesUnderLoad() throws Exception {
+        conditionsModel.fixedResponse("{\"timeSlotId\": \"any\", \"meetsRequirements\": true}");
+
+        AtomicInteger next = new AtomicInteger();
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> workers = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            workers.add(worker(next).toCompletableFuture());
+        }
+        CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new)).get(30, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%nFlight load test: %d booking cycles at concurrency %d in %.1f s (conditions cache %s)%n",
+                bookings, concurrency, elapsed / 1_000_000_000.0, conditionsCache ? "on" : "off");
+        System.out.println(recorder.report(elapsed));
+
+        assertEquals(0, recorder.totalErrors(), "requests failed under load");
+        if (maxP99Millis > 0) {
+            for (String endpoint : recorder.endpoints()) {
+                assertTrue(recorder.p99Millis(endpoint) <= maxP99Millis,
+                        endpoint + " p99 exceeded " + maxP99Millis + " ms");
+            }
+        }
+    }
+
+    // Runs booking cycles one after the other until all have been claimed
+    private CompletionStage<Void> worker(AtomicInteger next) {
+        int cycle = next.getAndIncrement();
+        if (cycle >= bookings) return CompletableFuture.completedFuture(null);
+        return bookingCycle(cycle).thenCompose(__ -> worker(next));
+    }
+
+    private CompletionStage<Void> bookingCycle(int cycle) {
+        String slotId = FIRST_SLOT.plusHours(cycle).format(SLOT_FORMAT);
+        String student = "load-student-" + cycle;
+        String aircraft = "load-aircraft-" + cycle % 50;
+        String instructor = "load-instructor-" + cycle % 50;
+        String bookingId = "load-booking-" + cycle;
+
+        CompletionStage<?> marked = CompletableFuture.allOf(
+                markAvailable(slotId, student, "student").toCompletableFuture(),
+                markAvailable(slotId, aircraft, "aircraft").toCompletableFuture(),
+                markAvailable(slotId, instructor, "instructor").toCompletableFuture());
+
+        return marked
+                .thenCompose(__ -> timed("POST /bookings", () -> httpClient
+                        .POST("/flight/bookings/" + slotId)
+                        .withRequestBody(new BookingRequest(student, aircraft, instructor, bookingId))
+                        .invokeAsync()))
+                .thenCompose(__ -> timed("GET /availability", () -> httpClient
+                        .GET("/flight/availability/" + slotId)
+                        .invokeAsync()))
+                .thenCompose(__ -> timed("GET /slots", () -> httpClient
+                        .GET("/flight/slots/" + student + "/booked")
+                        .invokeAsync()))
+                .thenCompose(__ -> timed("DELETE /bookings", () -> httpClient
+                        .DELETE("/flight/bookings/" + slotId + "/" + bookingId)
+                        .invokeAsync()))
+                .thenApply(__ -> null);
+    }
+
+    private CompletionStage<StrictResponse<ByteString>> markAvailable(
+            String slotId, String participantId, String participantType) {
+        return timed("POST /availability", () -> httpClient
+                .POST("/flight/availability/" + slotId)
+                .withRequestBody(new AvailabilityRequest(participantId, participantType))
+                .invokeAsync());
+    }
+
+    // Times a call and records it, counting exceptions and 4xx/5xx statuses as
+    // errors. Failures are recorded rather than propagated so one bad request
+    // doesn't stop the worker.
+    private CompletionStage<StrictResponse<ByteString>> timed(
+            String endpoint, Supplier<CompletionStage<StrictResponse<ByteString>>> call) {
+        long start = System.nanoTime();
+        return call.get().handle((response, ex) -> {
+            boolean error = ex != null || response.status().intValue() >= 400;
+            recorder.record(endpoint, System.nanoTime() - start, error);
+            return response;
+        });
+    }
+}
@@ -0,0 +1,70 @@
+package io.example.load;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+// Collects per-endpoint latencies and error counts for a load run and renders
+// throughput and p50/p95/p99 latency as a table.
+class LatencyRecorder {
+
+    private final Map<String, Samples> byEndpoint = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long nanos, boolean error) {
+        Samples samples = byEndpoint.computeIfAbsent(endpoint, __ -> new Samples());
+        samples.latencies.add(nanos);
+        if (error) samples.errors.increment();
+    }
+
+    long totalErrors() {
+        return byEndpoint.values().stream().mapToLong(s -> s.errors.sum()).sum();
+    }
+
+    double p99Millis(String endpoint) {
+        Samples samples = byEndpoint.get(endpoint);
+        return samples == null ? 0 : percentile(samples.sorted(), 0.99) / 1_000_000.0;
+    }
+
+    List<String> endpoints() {
+        return byEndpoint.keySet().stream().sorted().toList();
+    }
+
+    String report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-22s %8s %7s %10s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms"));
+        for (String endpoint : endpoints()) {
+            Samples samples = byEndpoint.get(endpoint);
+            long[] sorted = samples.sorted();
+            out.append(String.format("%-22s %8d %7d %10.1f %9.2f %9.2f %9.2f%n",
+                    endpoint,
+                    sorted.length,
+                    samples.errors.sum(),
+                    sorted.length / seconds,
+                    percentile(sorted, 0.50) / 1_000_000.0,
+                    percentile(sorted, 0.95) / 1_000_000.0,
+                    percentile(sorted, 0.99) / 1_000_000.0));
+        }
+        return out.toString();
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static class Samples {
+        final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        final LongAdder errors = new LongAdder();
+
+        long[] sorted() {
+            List<Long> copy = new ArrayList<>(latencies);
+            return copy.stream().mapToLong(Long::longValue).sorted().toArray();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+Feature: Recurring Availability Rules
+
+  Scenario: A weekly rule marks the participant available in every slot it covers
+    Given the flight service is running on "http://localhost:9000"
+
+    When I PUT "/flight/availability-rules/rule-teacher-mornings" with body:
+      """
+      {
+        "participantId": "rule-teacher",
+        "participantType": "instructor",
+        "firstDay": "2026-11-02",
+        "lastDay": "2026-11-08",
+        "days": ["MONDAY", "WEDNESDAY"],
+        "fromHour": 8,
+        "toHour": 10
+      }
+      """
+    Then the response status should be 200
+
+    When I GET "/flight/slots/{participantId}/available" with participantId "rule-teacher"
+    Then eventually the response body should contain "2026-11-02-08"
+    And eventually the response body should contain "2026-11-02-09"
+    And eventually the response body should contain "2026-11-04-09"
+
+  Scenario: Editing a rule unmarks the slots it no longer covers
+    Given the flight service is running on "http://localhost:9000"
+
+    When I PUT "/flight/availability-rules/rule-pilot-mornings" with body:
+      """
+      {
+        "participantId": "rule-pilot",
+        "participantType": "instructor",
+        "firstDay": "2026-11-02",
+        "lastDay": "2026-11-08",
+        "days": ["MONDAY", "WEDNESDAY"],
+        "fromHour": 8,
+        "toHour": 10
+      }
+      """
+    Then the response status should be 200
+
+    When I GET "/flight/slots/{participantId}/available" with participantId "rule-pilot"
+    Then eventually the response body should contain "2026-11-04-09"
+
+    When I PUT "/flight/availability-rules/rule-pilot-mornings" with body:
+      """
+      {
+        "participantId": "rule-pilot",
+        "participantType": "instructor",
+        "firstDay": "2026-11-02",
+        "lastDay": "2026-11-08",
+        "days": ["MONDAY"],
+        "fromHour": 8,
+        "toHour": 10
+      }
+      """
+    Then the response status should be 200
+
+    When I GET "/flight/slots/{participantId}/available" with participantId "rule-pilot"
+    Then eventually the response body should not contain "2026-11-04-09"
+    And the response body should contain "2026-11-02-09"
+
+  Scenario: Reject a rule with an empty hour range
+    Given the flight service is running on "http://localhost:9000"
+
+    When I PUT "/flight/availability-rules/rule-bad-hours" with body:
+      """
+      {
+        "participantId": "rule-student",
+        "participantType": "student",
+        "firstDay": "2026-11-02",
+        "lastDay": "2026-11-08",
+        "days": ["MONDAY"],
+        "fromHour": 10,
+        "toHour": 10
+      }
+      """
+    Then the response status should be 400
+
+  Scenario: Deleting a rule leaves the slots the participant marked by hand available
+    Given the flight service is running on "http://localhost:9000"
+    When I POST "/flight/availability/{slotId}" with slotId "2026-11-09-08" and participantId "rule-keeper" and participantType "student"
+    Then the response status should be 200
+
+    When I PUT "/flight/availability-rules/rule-keeper-mondays" with body:
+      """
+      {
+        "participantId": "rule-keeper",
+        "participantType": "student",
+        "firstDay": "2026-11-09",
+        "lastDay": "2026-11-09",
+        "days": ["MONDAY"],
+        "fromHour": 8,
+        "toHour": 10
+      }
+      """
+    Then the response status should be 200
+
+    When I GET "/flight/availability-rules/rule-keeper-mondays" with slotId ""
+    Then eventually the response body should contain '"applied":1,"untouched":1'
+
+    When I DELETE "/flight/availability-rules/rule-keeper-mondays" with slotId "" and bookingId ""
+    Then the response status should be 200
+
+    When I GET "/flight/slots/{participantId}/available" with participantId "rule-keeper"
+    Then eventually the response body should not contain "2026-11-09-09"
+    And the response body should contain "2026-11-09-08"
@@ -0,0 +1,51 @@
+Feature: Batch Scheduling
+
+  Scenario: Assign an instructor and an aircraft to a student's lesson in a batch
+    Given the flight service is running on "http://localhost:9000"
+
+    When I POST "/flight/availability/{slotId}" with slotId "2026-12-28-10" and participantId "batch-student" and participantType "student"
+    And I POST "/flight/availability/{slotId}" with slotId "2026-12-28-10" and participantId "batch-teacher" and participantType "instructor"
+    And I POST "/flight/availability/{slotId}" with slotId "2026-12-28-10" and participantId "batch-plane" and participantType "aircraft"
+
+    # wait until the slot is open in the view the batch reads
+    When I GET "/flight/bookable-slots?studentId=batch-student&instructorId=batch-teacher&from=2026-12-28-00&to=2026-12-28-23" with slotId ""
+    Then eventually the response body should contain "batch-plane"
+
+    When I POST "/flight/schedule/batch" with slotId "" and body:
+      """
+      {
+        "from": "2026-12-28-00",
+        "to": "2026-12-28-23",
+        "lessons": [{"bookingId": "batch-booking", "studentId": "batch-student"}]
+      }
+      """
+    Then the response status should be 200
+    And the response body should contain "2026-12-28-10"
+    And the response body should contain "batch-teacher"
+    And the response body should contain "batch-plane"
+
+    # posting the same batch again reports the lesson as scheduled already
+    # rather than booking its booking ID into another slot
+    When I POST "/flight/schedule/batch" with slotId "" and body:
+      """
+      {
+        "from": "2026-12-28-00",
+        "to": "2026-12-28-23",
+        "lessons": [{"bookingId": "batch-booking", "studentId": "batch-student"}]
+      }
+      """
+    Then eventually the response body should contain '"alreadyScheduled":[{"bookingId":"batch-booking","slotId":"2026-12-28-10"'
+    And the response body should contain '"booked":[]'
+
+  Scenario: Reject a batch whose range is longer than the horizon
+    Given the flight service is running on "http://localhost:9000"
+
+    When I POST "/flight/schedule/batch" with slotId "" and body:
+      """
+      {
+        "from": "2026-12-01-00",
+        "to": "2027-03-01-00",
+        "lessons": [{"bookingId": "batch-far-booking", "studentId": "batch-student"}]
+      }
+      """
+    Then the response status should be 400
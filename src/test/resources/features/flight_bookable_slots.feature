@@ -0,0 +1,23 @@
+Feature: Bookable Slot Search
+
+  Scenario: Find slots where a student, instructor and aircraft are all available
+    Given the flight service is running on "http://localhost:9000"
+
+    When I POST "/flight/availability/{slotId}" with slotId "2026-12-22-10" and participantId "search-student" and participantType "student"
+    And I POST "/flight/availability/{slotId}" with slotId "2026-12-22-10" and participantId "search-teacher" and participantType "instructor"
+    And I POST "/flight/availability/{slotId}" with slotId "2026-12-22-10" and participantId "search-plane" and participantType "aircraft"
+    And I POST "/flight/availability/{slotId}" with slotId "2026-12-22-11" and participantId "search-student" and participantType "student"
+    And I POST "/flight/availability/{slotId}" with slotId "2026-12-22-11" and participantId "search-teacher" and participantType "instructor"
+
+    When I GET "/flight/bookable-slots?studentId=search-student&instructorId=search-teacher&from=2026-12-22-00&to=2026-12-22-23" with slotId ""
+    Then eventually the response body should contain "2026-12-22-10"
+    And the response body should contain "search-plane"
+    # 11 has no aircraft available
+    And the response body should not contain "2026-12-22-11"
+
+  Scenario: The any-participant marker can't be used as a participant ID
+    Given the flight service is running on "http://localhost:9000"
+    When I POST "/flight/availability/{slotId}" with slotId "2026-12-22-12" and participantId "*" and participantType "student"
+    Then the response status should be 400
+    When I GET "/flight/bookable-slots?studentId=*" with slotId ""
+    Then the response status should be 400
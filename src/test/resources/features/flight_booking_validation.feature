@@ -41,3 +41,33 @@ Feature: Flight Booking Validation
     Then eventually the response body should contain "bob"
     And eventually the response body should contain "available"
     And eventually the response body should contain "2026-12-25-15"
+
+  Scenario: Retrying a booking that already succeeded is accepted again
+    Given the flight service is running on "http://localhost:9000"
+    When I POST "/flight/availability/{slotId}" with slotId "2026-12-27-10" and participantId "carol" and participantType "student"
+    And I POST "/flight/availability/{slotId}" with slotId "2026-12-27-10" and participantId "retryplane" and participantType "aircraft"
+    And I POST "/flight/availability/{slotId}" with slotId "2026-12-27-10" and participantId "retryteacher" and participantType "instructor"
+
+    When I POST "/flight/bookings/{slotId}" with slotId "2026-12-27-10" and body:
+      """
+      {
+        "bookingId": "booking-retried",
+        "aircraftId": "retryplane",
+        "instructorId": "retryteacher",
+        "studentId": "carol"
+      }
+      """
+    Then the response status should be 201
+
+    # The participants are booked now, not available, but the same booking is
+    # still accepted
+    When I POST "/flight/bookings/{slotId}" with slotId "2026-12-27-10" and body:
+      """
+      {
+        "bookingId": "booking-retried",
+        "aircraftId": "retryplane",
+        "instructorId": "retryteacher",
+        "studentId": "carol"
+      }
+      """
+    Then the response status should be 201
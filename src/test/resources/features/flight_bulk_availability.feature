@@ -0,0 +1,28 @@
+Feature: Bulk Availability
+
+  Scenario: Mark and unmark availability for many slots in one request
+    Given the flight service is running on "http://localhost:9000"
+
+    When I POST "/flight/availability" with slotId "" and body:
+      """
+      {
+        "items": [
+          { "slotId": "2026-12-20-08", "participantId": "bulk-teacher", "participantType": "instructor" },
+          { "slotId": "2026-12-20-09", "participantId": "bulk-teacher", "participantType": "instructor" },
+          { "slotId": "2026-12-20-10", "participantId": "bulk-teacher", "participantType": "instructor" },
+          { "slotId": "2026-12-20-10", "participantId": "bulk-teacher", "participantType": "instructor", "action": "unmark" },
+          { "slotId": "2026-12-20-11", "participantId": "bulk-teacher", "participantType": "pilot" },
+          { "slotId": "2026-12-20-08", "participantId": "bulk-teacher", "participantType": "instructor", "action": "unmrak" }
+        ]
+      }
+      """
+    Then the response status should be 200
+    And the response body should contain "invalid participant type"
+    And the response body should contain "invalid action, expected mark or unmark"
+
+    When I GET "/flight/availability/{slotId}" with slotId "2026-12-20-09"
+    Then the response status should be 200
+    And the response body should contain participant "bulk-teacher"
+
+    When I GET "/flight/slots/{participantId}/{status}" with participantId "bulk-teacher" and status "available"
+    Then eventually the response body should contain "2026-12-20-08"
@@ -0,0 +1,29 @@
+Feature: Live Slot Changes
+
+  Scenario: A slot's change stream starts with its current participants
+    Given the flight service is running on "http://localhost:9000"
+    When I POST "/flight/availability/{slotId}" with slotId "2026-12-15-09" and participantId "live-student" and participantType "student"
+    And I read the first event from "/flight/availability/2026-12-15-09/changes"
+    Then the response status should be 200
+    And the response body should contain "event: slot"
+    And the response body should contain "live-student"
+
+  Scenario: A participant's change stream lists their status in each slot
+    Given the flight service is running on "http://localhost:9000"
+    When I POST "/flight/availability/{slotId}" with slotId "2026-12-16-10" and participantId "live-plane" and participantType "aircraft"
+    And I read the first event from "/flight/participants/live-plane/changes?from=2026-12-16-00"
+    Then the response body should contain "event: participant-slot"
+    And the response body should contain "2026-12-16-10"
+    And the response body should contain "available"
+
+  Scenario: A change stream rejects an invalid offset
+    Given the flight service is running on "http://localhost:9000"
+    When I read the first event from "/flight/availability/2026-12-15-09/changes?offset=yesterday"
+    Then the response status should be 400
+
+  Scenario: A reconnecting participant stream starts again from the current statuses
+    Given the flight service is running on "http://localhost:9000"
+    When I POST "/flight/availability/{slotId}" with slotId "2026-12-16-11" and participantId "live-glider" and participantType "aircraft"
+    And I read the first event from "/flight/participants/live-glider/changes?from=2026-12-16-00&offset=9999999999999"
+    Then the response body should contain "event: participant-slot"
+    And the response body should contain "2026-12-16-11"
@@ -0,0 +1,23 @@
+Feature: Participant Calendar
+
+  # GET /flight/calendar is only served in the calendar projection mode, so scenarios that
+  # need it are tagged @calendar-projection and left out of the default run
+  # (see junit-platform.properties)
+
+  @calendar-projection
+  Scenario: A participant's month lists its available and booked slots
+    Given the flight service is running on "http://localhost:9000"
+
+    When I POST "/flight/availability/{slotId}" with slotId "2026-11-03-09" and participantId "calendar-plane" and participantType "aircraft"
+    And I POST "/flight/availability/{slotId}" with slotId "2026-11-20-14" and participantId "calendar-plane" and participantType "aircraft"
+    And I POST "/flight/availability/{slotId}" with slotId "2026-11-20-14" and participantId "calendar-student" and participantType "student"
+    And I POST "/flight/availability/{slotId}" with slotId "2026-11-20-14" and participantId "calendar-teacher" and participantType "instructor"
+    And I POST "/flight/bookings/{slotId}" with slotId "2026-11-20-14" and body:
+      """
+      {"studentId": "calendar-student", "aircraftId": "calendar-plane", "instructorId": "calendar-teacher", "bookingId": "calendar-booking"}
+      """
+
+    When I GET "/flight/calendar/calendar-plane/2026-11" with slotId ""
+    Then eventually the response body should contain "calendar-booking"
+    And the response body should contain "2026-11-03-09"
+    And the response body should contain "2026-11-20-14"
@@ -0,0 +1,19 @@
+Feature: Read Consistency
+
+  Scenario: A slot can be read from the local replica or the primary region
+    Given the flight service is running on "http://localhost:9000"
+    When I POST "/flight/availability/{slotId}" with slotId "2026-12-18-11" and participantId "region-student" and participantType "student"
+
+    When I GET "/flight/availability/{slotId}?consistency=primary" with slotId "2026-12-18-11"
+    Then the response status should be 200
+    And the response body should contain participant "region-student"
+
+    When I GET "/flight/availability/{slotId}?consistency=local" with slotId "2026-12-18-11"
+    Then eventually the response body should contain "region-student"
+
+  Scenario: Unknown or unsupported consistency options are rejected
+    Given the flight service is running on "http://localhost:9000"
+    When I GET "/flight/availability/{slotId}?consistency=eventual" with slotId "2026-12-18-11"
+    Then the response status should be 400
+    When I GET "/flight/slots/{participantId}/{status}?consistency=primary" with participantId "region-student" and status "available"
+    Then the response status should be 400
@@ -0,0 +1,19 @@
+Feature: Participant Slot Queries
+
+  Scenario: Page through a participant's slots within a time range
+    Given the flight service is running on "http://localhost:9000"
+
+    When I POST "/flight/availability/{slotId}" with slotId "2026-12-21-08" and participantId "paged-plane" and participantType "aircraft"
+    And I POST "/flight/availability/{slotId}" with slotId "2026-12-21-09" and participantId "paged-plane" and participantType "aircraft"
+    And I POST "/flight/availability/{slotId}" with slotId "2026-12-21-10" and participantId "paged-plane" and participantType "aircraft"
+    And I POST "/flight/availability/{slotId}" with slotId "2026-12-21-11" and participantId "paged-plane" and participantType "aircraft"
+    And I POST "/flight/availability/{slotId}" with slotId "2026-12-21-12" and participantId "paged-plane" and participantType "aircraft"
+
+    When I GET "/flight/slots/{participantId}/{status}?from=2026-12-21-09&to=2026-12-21-11&pageSize=2" with participantId "paged-plane" and status "available"
+    Then eventually the response body should contain "2026-12-21-09"
+    And eventually the response body should contain "2026-12-21-10"
+    And the response body should contain "nextPageToken"
+    # 08 and 12 are outside the range, 11 is on the second page
+    And the response body should not contain "2026-12-21-08"
+    And the response body should not contain "2026-12-21-11"
+    And the response body should not contain "2026-12-21-12"
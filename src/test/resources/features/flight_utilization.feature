@@ -0,0 +1,29 @@
+Feature: Fleet Utilization
+
+  Scenario: Hour counts of several participants are returned in one call
+    Given the flight service is running on "http://localhost:9000"
+
+    When I POST "/flight/availability/{slotId}" with slotId "2026-12-07-09" and participantId "util-plane" and participantType "aircraft"
+    And I POST "/flight/availability/{slotId}" with slotId "2026-12-07-10" and participantId "util-plane" and participantType "aircraft"
+    And I POST "/flight/availability/{slotId}" with slotId "2026-12-07-10" and participantId "util-student" and participantType "student"
+    And I POST "/flight/availability/{slotId}" with slotId "2026-12-07-10" and participantId "util-teacher" and participantType "instructor"
+    And I POST "/flight/bookings/{slotId}" with slotId "2026-12-07-10" and body:
+      """
+      {"studentId": "util-student", "aircraftId": "util-plane", "instructorId": "util-teacher", "bookingId": "util-booking"}
+      """
+
+    When I POST "/flight/utilization" with slotId "" and body:
+      """
+      {"participantIds": ["util-plane", "util-teacher", "util-unknown"], "from": "2026-12", "to": "2026-12"}
+      """
+    Then eventually the response body should contain '{"period":"2026-12-07","availableHours":1,"bookedHours":1,"canceledHours":0}'
+    And the response body should contain "2026-W50"
+    And the response body should contain "util-unknown"
+
+  Scenario: Utilization requires at least one participant
+    Given the flight service is running on "http://localhost:9000"
+    When I POST "/flight/utilization" with slotId "" and body:
+      """
+      {"participantIds": [], "from": "2026-12", "to": "2026-12"}
+      """
+    Then the response status should be 400